@@ -33,6 +33,7 @@ import Roguelike.Tiles.GameTile;
 import Roguelike.Tiles.Point;
 import Roguelike.UI.Seperator;
 import Roguelike.Util.EnumBitflag;
+import Roguelike.Util.TileBitset;
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.math.Vector2;
@@ -40,6 +41,7 @@ import com.badlogic.gdx.scenes.scene2d.ui.Label;
 import com.badlogic.gdx.scenes.scene2d.ui.Skin;
 import com.badlogic.gdx.scenes.scene2d.ui.Table;
 import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntArray;
 import com.badlogic.gdx.utils.XmlReader;
 import com.badlogic.gdx.utils.XmlReader.Element;
 
@@ -80,6 +82,8 @@ public class ActiveAbility implements IAbility, IGameObject
 	private GameEntity caster;
 	private HashMap<String, Integer> variableMap = new HashMap<String, Integer>();
 	public EnumBitflag<Passability> abilityPassability = new EnumBitflag<Passability>( Passability.LEVITATE );
+	private final TileBitset coneVisibleTiles = new TileBitset();
+	private final IntArray fovOutput = new IntArray();
 	public Light light;
 	public Sprite Icon;
 	public boolean hasValidTargets = true;
@@ -216,17 +220,6 @@ public class ActiveAbility implements IAbility, IGameObject
 		return movementSprite;
 	}
 
-	// ----------------------------------------------------------------------
-	public boolean isTargetValid( GameTile tile, Array<Point> valid )
-	{
-		for ( Point validTile : valid )
-		{
-			if ( validTile.x == tile.x && validTile.y == tile.y ) { return true; }
-		}
-
-		return false;
-	}
-
 	// ----------------------------------------------------------------------
 	public Array<Point> getValidTargets()
 	{
@@ -319,7 +312,7 @@ public class ActiveAbility implements IAbility, IGameObject
 				sprite.size[0] = caster.size;
 				sprite.size[1] = caster.size;
 
-				caster.tile[ 0 ][ 0 ].spriteEffects.add( new SpriteEffect( sprite, Direction.CENTER, light != null ? light.copyNoFlag() : null ) );
+				caster.tile[ 0 ][ 0 ].addSpriteEffect( new SpriteEffect( sprite, Direction.CENTER, light != null ? light.copyNoFlag() : null ) );
 			}
 		}
 
@@ -368,7 +361,7 @@ public class ActiveAbility implements IAbility, IGameObject
 
 						SpriteEffect effect = new SpriteEffect( sprite, Direction.CENTER, light != null ? light.copyNoFlag() : null );
 
-						tile.spriteEffects.add( effect );
+						tile.addSpriteEffect( effect );
 					}
 				}
 			}
@@ -381,18 +374,17 @@ public class ActiveAbility implements IAbility, IGameObject
 			}
 			else if ( aoe > 0 )
 			{
-				Array<Point> output = new Array<Point>();
+				IntArray output = fovOutput;
+				output.clear();
 
-				ShadowCaster shadow = new ShadowCaster( epicenter.level.getGrid(), aoe, abilityPassability, caster );
-				shadow.ComputeFOV( epicenter.x, epicenter.y, output );
+				ShadowCaster.get().computeFOV( epicenter.level.getGrid(), epicenter.x, epicenter.y, aoe, abilityPassability, caster, false, output );
 
-				for ( Point tilePos : output )
+				for ( int i = 0; i < output.size; i++ )
 				{
-					GameTile tile = epicenter.level.getGameTile( tilePos );
+					int packed = output.get( i );
+					GameTile tile = epicenter.level.getGameTile( ShadowCaster.unpackX( packed ), ShadowCaster.unpackY( packed ) );
 					AffectedTiles.add( tile );
 				}
-
-				Global.PointPool.freeAll( output );
 			}
 			else if ( cone > 0 )
 			{
@@ -402,34 +394,25 @@ public class ActiveAbility implements IAbility, IGameObject
 				Array<Point> cone = Direction.buildCone( dir, epicenterPoint, this.cone );
 				Global.PointPool.free( epicenterPoint );
 
-				Array<Point> output = new Array<Point>();
+				IntArray output = fovOutput;
+				output.clear();
 
-				ShadowCaster shadow = new ShadowCaster( epicenter.level.getGrid(), this.cone, abilityPassability, caster );
-				shadow.ComputeFOV( epicenter.x, epicenter.y, output );
+				ShadowCaster.get().computeFOV( epicenter.level.getGrid(), epicenter.x, epicenter.y, this.cone, abilityPassability, caster, false, output );
 
-				for ( Point tilePos : cone )
+				TileBitset visible = coneVisibleTiles;
+				visible.setSize( epicenter.level.width, epicenter.level.height );
+				for ( int i = 0; i < output.size; i++ )
 				{
-					GameTile tile = epicenter.level.getGameTile( tilePos );
-
-					boolean canAdd = false;
-					for ( Point visPos : output )
-					{
-						GameTile visTile = epicenter.level.getGameTile( visPos );
-
-						if ( tile == visTile )
-						{
-							canAdd = true;
-							break;
-						}
-					}
+					visible.set( ShadowCaster.unpackX( output.get( i ) ), ShadowCaster.unpackY( output.get( i ) ) );
+				}
 
-					if ( canAdd )
+				for ( Point tilePos : cone )
+				{
+					if ( visible.get( tilePos.x, tilePos.y ) )
 					{
-						AffectedTiles.add( tile );
+						AffectedTiles.add( epicenter.level.getGameTile( tilePos ) );
 					}
 				}
-
-				Global.PointPool.freeAll( output );
 			}
 
 			// minimise list
@@ -514,7 +497,7 @@ public class ActiveAbility implements IAbility, IGameObject
 						sound.play( tile );
 					}
 
-					tile.spriteEffects.add( effect );
+					tile.addSpriteEffect( effect );
 				}
 				else
 				{
@@ -567,7 +550,7 @@ public class ActiveAbility implements IAbility, IGameObject
 						sound.play( tile );
 					}
 
-					tile.spriteEffects.add( effect );
+					tile.addSpriteEffect( effect );
 				}
 			}
 
@@ -100,7 +100,7 @@ public class EffectTypeFieldInteraction extends AbstractEffectType
 							fieldStore.put( layer, null );
 						}
 
-						tile.fields.put( layer, null );
+						tile.detachField( layer );
 
 						Field field = interaction.process( srcField, dstField );
 
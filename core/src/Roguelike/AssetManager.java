@@ -68,7 +68,7 @@ public class AssetManager
 
 	private static HashMap<String, Sound> loadedSounds = new HashMap<String, Sound>();
 
-	public static Sound loadSound( String path )
+	public static synchronized Sound loadSound( String path )
 	{
 		if ( loadedSounds.containsKey( path ) ) { return loadedSounds.get( path ); }
 
@@ -95,7 +95,7 @@ public class AssetManager
 
 	private static HashMap<String, TextureRegion> loadedTextureRegions = new HashMap<String, TextureRegion>();
 
-	public static TextureRegion loadTextureRegion( String path )
+	public static synchronized TextureRegion loadTextureRegion( String path )
 	{
 		if ( loadedTextureRegions.containsKey( path ) ) { return loadedTextureRegions.get( path ); }
 
@@ -13,6 +13,7 @@ import Roguelike.Entity.EnvironmentEntity;
 import Roguelike.Entity.GameEntity;
 import Roguelike.Levels.Level;
 import Roguelike.Quests.Quest;
+import Roguelike.Save.LevelSnapshot;
 import Roguelike.Save.SaveLevel;
 import Roguelike.Tiles.GameTile;
 
@@ -51,6 +52,22 @@ public abstract class AbstractDungeonGenerator
 	// ----------------------------------------------------------------------
 	public abstract boolean generate();
 
+	// ----------------------------------------------------------------------
+	// The stage that calls createLevel. Every stage before it only works on the generator's own grid and so can run off the GL thread
+	protected abstract int getCreateLevelStage();
+
+	// ----------------------------------------------------------------------
+	public boolean isReadyToCreateLevel()
+	{
+		return generationIndex >= getCreateLevelStage();
+	}
+
+	// ----------------------------------------------------------------------
+	public int getGridCellCount()
+	{
+		return width * height;
+	}
+
 	// ----------------------------------------------------------------------
 	public Level getLevel()
 	{
@@ -294,15 +311,7 @@ public abstract class AbstractDungeonGenerator
 
 		GameTile[][] actualTiles = new GameTile[width][height];
 		Level level = new Level( actualTiles );
-		level.Ambient = dfp.ambient;
-		level.bgmName = quest.music;
-		level.ambientSounds.addAll( dfp.ambientSounds );
-
-		level.fileName = saveLevel.fileName;
-		level.seed = saveLevel.seed;
-		level.requiredRooms = additionalRooms;
-
-		level.background = dfp.background;
+		setupLevel( level );
 
 		for ( int x = 0; x < width; x++ )
 		{
@@ -480,21 +489,61 @@ public abstract class AbstractDungeonGenerator
 		return level;
 	}
 
+	// ----------------------------------------------------------------------
+	// Rebuilds a level that was created before from its saved geometry, without running the generator again
+	protected Level createLevelFromSnapshot()
+	{
+		additionalRooms.addAll( saveLevel.requiredRooms );
+
+		Level level = LevelSnapshot.read( saveLevel.geometry );
+		setupLevel( level );
+
+		saveLevel.addSavedLevelContents( level );
+
+		level.UID = saveLevel.UID;
+
+		level.calculateAmbient();
+
+		return level;
+	}
+
+	// ----------------------------------------------------------------------
+	private void setupLevel( Level level )
+	{
+		level.Ambient = dfp.ambient;
+		level.bgmName = quest.music;
+		level.ambientSounds.addAll( dfp.ambientSounds );
+
+		level.fileName = saveLevel.fileName;
+		level.seed = saveLevel.seed;
+		level.requiredRooms = additionalRooms;
+
+		level.background = dfp.background;
+	}
+
 	// ----------------------------------------------------------------------
 	public static AbstractDungeonGenerator load( SaveLevel level, Quest quest )
 	{
 		DungeonFileParser dfp = DungeonFileParser.load( quest.level + "/" + quest.level );
 
-		Class<AbstractDungeonGenerator> c = ClassMap.get( dfp.generator.toUpperCase() );
 		AbstractDungeonGenerator type = null;
 
-		try
+		if ( level.created && level.geometry != null )
 		{
-			type = ClassReflection.newInstance( c );
+			type = new SnapshotLevelGenerator();
 		}
-		catch ( Exception e )
+		else
 		{
-			e.printStackTrace();
+			Class<AbstractDungeonGenerator> c = ClassMap.get( dfp.generator.toUpperCase() );
+
+			try
+			{
+				type = ClassReflection.newInstance( c );
+			}
+			catch ( Exception e )
+			{
+				e.printStackTrace();
+			}
 		}
 
 		type.setup( level, quest, dfp );
@@ -0,0 +1,150 @@
+package Roguelike.DungeonGeneration;
+
+import Roguelike.Levels.Level;
+
+/**
+ * Runs a dungeon generator on a background thread. Every stage up to the one that creates the level only touches the
+ * generator's own symbol grid, so it runs on the worker. Creating the level binds sprites, sounds and entities, so that
+ * last stage is left for the GL thread to run from {@link #poll()}.
+ */
+public final class GenerationTask implements Runnable
+{
+	// ----------------------------------------------------------------------
+	public interface ProgressListener
+	{
+		// Called from the worker thread after every stage
+		public void onProgress( int percent, String text );
+	}
+
+	// ----------------------------------------------------------------------
+	private final AbstractDungeonGenerator generator;
+	private volatile ProgressListener listener;
+
+	private volatile int percent;
+	private volatile String generationText;
+	private volatile boolean readyToCreateLevel;
+	private volatile boolean cancelled;
+	private volatile Throwable error;
+
+	private Thread thread;
+	private Level level;
+
+	// ----------------------------------------------------------------------
+	public GenerationTask( AbstractDungeonGenerator generator )
+	{
+		this.generator = generator;
+
+		percent = generator.percent;
+		generationText = generator.generationText;
+	}
+
+	// ----------------------------------------------------------------------
+	public void setProgressListener( ProgressListener listener )
+	{
+		this.listener = listener;
+	}
+
+	// ----------------------------------------------------------------------
+	public GenerationTask start()
+	{
+		thread = new Thread( this, "DungeonGeneration" );
+		thread.setDaemon( true );
+		thread.start();
+
+		return this;
+	}
+
+	// ----------------------------------------------------------------------
+	@Override
+	public void run()
+	{
+		try
+		{
+			while ( !cancelled && !generator.isReadyToCreateLevel() )
+			{
+				generator.generate();
+
+				percent = generator.percent;
+				generationText = generator.generationText;
+
+				ProgressListener listener = this.listener;
+				if ( listener != null )
+				{
+					listener.onProgress( percent, generationText );
+				}
+			}
+		}
+		catch ( Throwable e )
+		{
+			error = e;
+		}
+
+		readyToCreateLevel = true;
+	}
+
+	// ----------------------------------------------------------------------
+	// Call from the GL thread until it returns true. Creates the level once the worker is done with the grid.
+	public boolean poll()
+	{
+		if ( level != null ) { return true; }
+		if ( !readyToCreateLevel ) { return false; }
+
+		if ( error != null ) { throw new RuntimeException( "Dungeon generation failed", error ); }
+
+		while ( !generator.generate() )
+		{
+		}
+
+		percent = generator.percent;
+		generationText = generator.generationText;
+		level = generator.getLevel();
+
+		return true;
+	}
+
+	// ----------------------------------------------------------------------
+	// Stops the worker after its current stage. The task can not be finished after this.
+	public void cancel()
+	{
+		cancelled = true;
+	}
+
+	// ----------------------------------------------------------------------
+	// True once the worker has finished every stage it can run
+	public boolean isReadyToCreateLevel()
+	{
+		return readyToCreateLevel && !cancelled;
+	}
+
+	// ----------------------------------------------------------------------
+	// Size of the generated grid, only valid once isReadyToCreateLevel is true
+	public int getGridCellCount()
+	{
+		return generator.getGridCellCount();
+	}
+
+	// ----------------------------------------------------------------------
+	public boolean isDone()
+	{
+		return level != null;
+	}
+
+	// ----------------------------------------------------------------------
+	// Only valid once poll has returned true
+	public Level getLevel()
+	{
+		return level;
+	}
+
+	// ----------------------------------------------------------------------
+	public int getPercent()
+	{
+		return percent;
+	}
+
+	// ----------------------------------------------------------------------
+	public String getGenerationText()
+	{
+		return generationText;
+	}
+}
@@ -0,0 +1,223 @@
+package Roguelike.DungeonGeneration;
+
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import Roguelike.Quests.Quest;
+import Roguelike.Save.SaveLevel;
+
+import com.badlogic.gdx.utils.Array;
+
+/**
+ * Generates the levels of the missions on offer while the player is in the hub, so starting one only has to create the
+ * level. Candidates are keyed by level file, seed and required rooms, and generated one at a time on a low priority
+ * thread. Once the finished grids go over the cell budget the oldest candidates are dropped. A candidate that is taken
+ * before its turn in the queue comes out of the queue and is run on its own thread at normal priority instead.
+ */
+public final class PregeneratedLevelCache
+{
+	// ----------------------------------------------------------------------
+	public static final int MaxCachedCells = 4 * 100 * 100;
+
+	// ----------------------------------------------------------------------
+	private final Array<Entry> entries = new Array<Entry>();
+	private ThreadPoolExecutor executor;
+	private Thread workerThread;
+
+	// ----------------------------------------------------------------------
+	// Keeps the candidates for these quests, drops the rest and queues any that are missing
+	public synchronized void request( Array<Quest> quests, long seed )
+	{
+		for ( int i = entries.size - 1; i >= 0; i-- )
+		{
+			Entry entry = entries.get( i );
+
+			boolean offered = false;
+			for ( Quest quest : quests )
+			{
+				if ( entry.matches( quest, seed ) )
+				{
+					offered = true;
+					break;
+				}
+			}
+
+			if ( !offered )
+			{
+				cancel( entry );
+				entries.removeIndex( i );
+			}
+		}
+
+		for ( Quest quest : quests )
+		{
+			if ( find( quest, seed ) != null )
+			{
+				continue;
+			}
+
+			SaveLevel saveLevel = quest.createSaveLevel( seed );
+			final Entry entry = new Entry( quest, seed, saveLevel, new GenerationTask( AbstractDungeonGenerator.load( saveLevel, quest ) ) );
+			entries.add( entry );
+
+			entry.job = new FutureTask<Void>( new Runnable()
+			{
+				@Override
+				public void run()
+				{
+					onStarted( entry );
+					entry.task.run();
+					onGenerated();
+				}
+			}, null );
+			getExecutor().execute( entry.job );
+		}
+	}
+
+	// ----------------------------------------------------------------------
+	// Removes and returns the candidate for this quest, or null if it was never requested. The task may still be running.
+	public synchronized Entry take( Quest quest, long seed )
+	{
+		Entry entry = find( quest, seed );
+		if ( entry == null ) { return null; }
+
+		entries.removeValue( entry, true );
+
+		// the player is waiting on it now, so it should not wait behind the other candidates or at minimum priority
+		if ( executor.remove( entry.job ) )
+		{
+			entry.task.start();
+		}
+		else if ( !entry.task.isReadyToCreateLevel() )
+		{
+			entry.urgent = true;
+			if ( workerThread != null )
+			{
+				workerThread.setPriority( Thread.NORM_PRIORITY );
+			}
+		}
+
+		return entry;
+	}
+
+	// ----------------------------------------------------------------------
+	public synchronized void clear()
+	{
+		for ( Entry entry : entries )
+		{
+			cancel( entry );
+		}
+		entries.clear();
+	}
+
+	// ----------------------------------------------------------------------
+	private Entry find( Quest quest, long seed )
+	{
+		for ( Entry entry : entries )
+		{
+			if ( entry.matches( quest, seed ) ) { return entry; }
+		}
+
+		return null;
+	}
+
+	// ----------------------------------------------------------------------
+	// Cancelled candidates that have not started are dropped from the queue, so they can not hold up the others
+	private void cancel( Entry entry )
+	{
+		entry.task.cancel();
+		executor.remove( entry.job );
+	}
+
+	// ----------------------------------------------------------------------
+	// Locked so take() can not raise the priority between the urgent check and the reset
+	private synchronized void onStarted( Entry entry )
+	{
+		Thread.currentThread().setPriority( entry.urgent ? Thread.NORM_PRIORITY : Thread.MIN_PRIORITY );
+	}
+
+	// ----------------------------------------------------------------------
+	private synchronized void onGenerated()
+	{
+		int cells = 0;
+		for ( Entry entry : entries )
+		{
+			cells += entry.getCellCount();
+		}
+
+		while ( cells > MaxCachedCells && entries.size > 0 )
+		{
+			Entry oldest = entries.removeIndex( 0 );
+			cancel( oldest );
+			cells -= oldest.getCellCount();
+		}
+	}
+
+	// ----------------------------------------------------------------------
+	private ThreadPoolExecutor getExecutor()
+	{
+		if ( executor == null )
+		{
+			executor = new ThreadPoolExecutor( 1, 1, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<Runnable>(), new ThreadFactory()
+			{
+				@Override
+				public Thread newThread( Runnable runnable )
+				{
+					workerThread = new Thread( runnable, "LevelPregeneration" );
+					workerThread.setDaemon( true );
+					workerThread.setPriority( Thread.MIN_PRIORITY );
+					return workerThread;
+				}
+			} );
+		}
+
+		return executor;
+	}
+
+	// ----------------------------------------------------------------------
+	public static final class Entry
+	{
+		public final String fileName;
+		public final long seed;
+		public final Array<DungeonFileParser.DFPRoom> rooms;
+
+		public final SaveLevel saveLevel;
+		public final GenerationTask task;
+
+		private FutureTask<Void> job;
+		private boolean urgent;
+
+		// ----------------------------------------------------------------------
+		private Entry( Quest quest, long seed, SaveLevel saveLevel, GenerationTask task )
+		{
+			this.fileName = saveLevel.fileName;
+			this.seed = seed;
+			this.rooms = new Array<DungeonFileParser.DFPRoom>( quest.rooms );
+			this.saveLevel = saveLevel;
+			this.task = task;
+		}
+
+		// ----------------------------------------------------------------------
+		public boolean matches( Quest quest, long seed )
+		{
+			if ( this.seed != seed || !fileName.equals( quest.name ) || rooms.size != quest.rooms.size ) { return false; }
+
+			for ( int i = 0; i < rooms.size; i++ )
+			{
+				if ( rooms.get( i ) != quest.rooms.get( i ) ) { return false; }
+			}
+
+			return true;
+		}
+
+		// ----------------------------------------------------------------------
+		// Only finished grids count against the budget
+		private int getCellCount()
+		{
+			return task.isReadyToCreateLevel() ? task.getGridCellCount() : 0;
+		}
+	}
+}
@@ -166,6 +166,13 @@ public class RecursiveDockGenerator extends AbstractDungeonGenerator
 		}
 	}
 
+	// ----------------------------------------------------------------------
+	@Override
+	protected int getCreateLevelStage()
+	{
+		return 8;
+	}
+
 	// ----------------------------------------------------------------------
 	@Override
 	public void setup( SaveLevel level, Quest quest, DungeonFileParser dfp )
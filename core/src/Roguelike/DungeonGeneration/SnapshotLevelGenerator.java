@@ -0,0 +1,48 @@
+package Roguelike.DungeonGeneration;
+
+import java.util.Random;
+
+import Roguelike.Quests.Quest;
+import Roguelike.Save.SaveLevel;
+
+/**
+ * Rebuilds a level that has been played before from the geometry stored in its SaveLevel, instead of generating it
+ * again from the seed.
+ */
+public class SnapshotLevelGenerator extends AbstractDungeonGenerator
+{
+	// ----------------------------------------------------------------------
+	@Override
+	public void setup( SaveLevel level, Quest quest, DungeonFileParser dfp )
+	{
+		this.saveLevel = level;
+		this.quest = quest;
+		this.dfp = dfp;
+
+		ran = new Random( level.seed );
+	}
+
+	// ----------------------------------------------------------------------
+	@Override
+	public boolean generate()
+	{
+		if ( generationIndex == 0 )
+		{
+			level = createLevelFromSnapshot();
+
+			generationIndex++;
+			generationText = "Completed";
+		}
+
+		percent = 100 * generationIndex;
+
+		return generationIndex >= 1;
+	}
+
+	// ----------------------------------------------------------------------
+	@Override
+	protected int getCreateLevelStage()
+	{
+		return 0;
+	}
+}
@@ -103,6 +103,13 @@ public class StaticLevelGenerator extends AbstractDungeonGenerator
 		}
 	}
 
+	// ----------------------------------------------------------------------
+	@Override
+	protected int getCreateLevelStage()
+	{
+		return 6;
+	}
+
 	// ----------------------------------------------------------------------
 	private void fillGridBase()
 	{
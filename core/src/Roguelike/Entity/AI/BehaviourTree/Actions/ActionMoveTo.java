@@ -5,6 +5,8 @@ import Roguelike.Global.Direction;
 import Roguelike.Entity.GameEntity;
 import Roguelike.Entity.AI.BehaviourTree.BehaviourTree.BehaviourTreeState;
 import Roguelike.Entity.Tasks.TaskMove;
+import Roguelike.Levels.Level;
+import Roguelike.Pathfinding.DijkstraMap;
 import Roguelike.Pathfinding.Pathfinder;
 import Roguelike.Tiles.GameTile;
 import Roguelike.Tiles.Point;
@@ -18,6 +20,9 @@ public class ActionMoveTo extends AbstractAction
 	public boolean towards;
 	public String key;
 
+	private final Array<Point> path = new Array<Point>();
+	private final Array<Point> goals = new Array<Point>();
+
 	@Override
 	public BehaviourTreeState evaluate( GameEntity entity )
 	{
@@ -37,22 +42,52 @@ public class ActionMoveTo extends AbstractAction
 			return State;
 		}
 
-		Pathfinder pathFinder = new Pathfinder( entity.tile[0][0].level.getGrid(), entity.tile[0][0].x, entity.tile[0][0].y, target.x, target.y, Global.CanMoveDiagonal, entity.size, entity );
-		Array<Point> path = pathFinder.getPath( entity.getTravelType() );
+		Level level = entity.tile[0][0].level;
+
+		// single tile entities share a distance map to the target, larger ones or blocked steps fall back to a search
+		if ( entity.size == 1 )
+		{
+			goals.clear();
+			goals.add( target );
+
+			DijkstraMap map = level.getDijkstraMap( goals, entity.getTravelType() );
+			int dist = map.getDistance( entity.tile[0][0].x, entity.tile[0][0].y );
+			Direction step = map.getBestStep( entity.tile[0][0].x, entity.tile[0][0].y, entity.getTravelType(), entity );
+
+			if ( dist != DijkstraMap.UNREACHABLE && step != null )
+			{
+				// a searched path held the start and the end twice, so its length less one was dist + 1
+				int pathLength = dist + 1;
+
+				if ( towards ? pathLength <= dst : pathLength >= dst )
+				{
+					State = BehaviourTreeState.SUCCEEDED;
+					return State;
+				}
+
+				entity.tasks.add( new TaskMove( towards ? step : Direction.getDirection( step.getX() * -1, step.getY() * -1 ) ) );
+
+				State = BehaviourTreeState.RUNNING;
+				return State;
+			}
+		}
+
+		Pathfinder pathFinder = new Pathfinder( level.getGrid(), entity.tile[0][0].x, entity.tile[0][0].y, target.x, target.y, Global.CanMoveDiagonal, entity.size, entity );
+		pathFinder.getPath( entity.getTravelType(), level.pathfind, path );
 
 		// if couldnt find a valid path, fail
 		if ( path.size < 2 )
 		{
-			Global.PointPool.freeAll( path );
+			freePath();
 			State = BehaviourTreeState.FAILED;
 			return State;
 		}
 
-		GameTile nextTile = entity.tile[0][0].level.getGameTile( path.get( 1 ) );
+		GameTile nextTile = level.getGameTile( path.get( 1 ) );
 		// if next step is impassable then fail
 		if ( !nextTile.getPassable( entity.getTravelType(), entity ) )
 		{
-			Global.PointPool.freeAll( path );
+			freePath();
 			State = BehaviourTreeState.FAILED;
 			return State;
 		}
@@ -64,7 +99,7 @@ public class ActionMoveTo extends AbstractAction
 		{
 			if ( path.size - 1 <= dst || ( offset[0] == 0 && offset[1] == 0 ) )
 			{
-				Global.PointPool.freeAll( path );
+				freePath();
 				State = BehaviourTreeState.SUCCEEDED;
 				return State;
 			}
@@ -76,7 +111,7 @@ public class ActionMoveTo extends AbstractAction
 		{
 			if ( path.size - 1 >= dst || ( offset[0] == 0 && offset[1] == 0 ) )
 			{
-				Global.PointPool.freeAll( path );
+				freePath();
 				State = BehaviourTreeState.SUCCEEDED;
 				return State;
 			}
@@ -84,11 +119,17 @@ public class ActionMoveTo extends AbstractAction
 			entity.tasks.add( new TaskMove( Direction.getDirection( offset[0] * -1, offset[1] * -1 ) ) );
 		}
 
-		Global.PointPool.freeAll( path );
+		freePath();
 		State = BehaviourTreeState.RUNNING;
 		return State;
 	}
 
+	private void freePath()
+	{
+		Global.PointPool.freeAll( path );
+		path.clear();
+	}
+
 	@Override
 	public void cancel()
 	{
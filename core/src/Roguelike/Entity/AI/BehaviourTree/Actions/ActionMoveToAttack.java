@@ -9,7 +9,10 @@ import Roguelike.Global.Passability;
 import Roguelike.Global.Statistic;
 import Roguelike.Items.Item;
 import Roguelike.Items.Item.EquipmentSlot;
+import Roguelike.Levels.Level;
+import Roguelike.Pathfinding.DijkstraMap;
 import Roguelike.Pathfinding.Pathfinder;
+import Roguelike.Pathfinding.ShadowCastCache;
 import Roguelike.Tiles.GameTile;
 import Roguelike.Tiles.Point;
 import Roguelike.Util.EnumBitflag;
@@ -27,6 +30,9 @@ public class ActionMoveToAttack extends AbstractAction
 
 	public String key;
 
+	private Array<Point> path = new Array<Point>();
+	private Array<Point> bestPath = new Array<Point>();
+
 	@Override
 	public BehaviourTreeState evaluate( GameEntity entity )
 	{
@@ -92,16 +98,16 @@ public class ActionMoveToAttack extends AbstractAction
 			}
 		}
 
-		Array<Point> shadowCast = null;
+		ShadowCastCache visibility = null;
 		GameTile targetTile = entity.tile[0][0].level.getGameTile( target );
 		if (targetTile.entity != null)
 		{
-			shadowCast = targetTile.entity.visibilityCache.getCurrentShadowCast();
+			visibility = targetTile.entity.visibilityCache;
 		}
 		else if (targetTile.environmentEntity != null)
 		{
 			targetTile.environmentEntity.updateShadowCast();
-			shadowCast = targetTile.environmentEntity.visibilityCache.getCurrentShadowCast();
+			visibility = targetTile.environmentEntity.visibilityCache;
 		}
 		else
 		{
@@ -116,55 +122,79 @@ public class ActionMoveToAttack extends AbstractAction
 		{
 			Point p = itr.next();
 
-			boolean found = false;
-			for (Point visibleP : shadowCast)
-			{
-				if (visibleP.x == p.x && visibleP.y == p.y)
-				{
-					found = true;
-					break;
-				}
-			}
-
-			if (!found)
+			if ( !visibility.isVisible( p.x, p.y ) )
 			{
 				itr.remove();
+				Global.PointPool.free( p );
 			}
 		}
 
-		int bestDist = Integer.MAX_VALUE;
-		Array<Point> bestPath = null;
+		Level level = entity.tile[0][0].level;
+		int x = entity.tile[0][0].x;
+		int y = entity.tile[0][0].y;
 
 		for ( Point pos : possibleTiles )
 		{
-			if ( pos.x == entity.tile[0][0].x && pos.y == entity.tile[0][0].y )
+			if ( pos.x == x && pos.y == y )
 			{
 				Global.PointPool.freeAll( possibleTiles );
 				State = BehaviourTreeState.SUCCEEDED;
 				return State;
 			}
+		}
+
+		// Single tile entities step down the shared distance map to the attack tiles. Searching each tile is kept for
+		// larger entities, unreachable targets and steps blocked by other entities.
+		if ( entity.size == 1 && possibleTiles.size > 0 )
+		{
+			DijkstraMap map = level.getDijkstraMap( possibleTiles, entity.getTravelType() );
+			int dist = map.getDistance( x, y );
+			Direction step = map.getBestStep( x, y, entity.getTravelType(), entity );
+
+			if ( dist != DijkstraMap.UNREACHABLE && step != null )
+			{
+				Global.PointPool.freeAll( possibleTiles );
+
+				// a searched path held the start and the end twice, so the old limit of 20 points is 18 steps
+				if ( dist + 2 >= 20 )
+				{
+					State = BehaviourTreeState.FAILED;
+					return State;
+				}
 
-			Pathfinder pathFinder = new Pathfinder( entity.tile[0][0].level.getGrid(), entity.tile[0][0].x, entity.tile[0][0].y, pos.x, pos.y, Global.CanMoveDiagonal, entity.size, entity );
-			Array<Point> path = pathFinder.getPath( entity.getTravelType() );
+				entity.tasks.add( new TaskMove( step ) );
+
+				State = BehaviourTreeState.RUNNING;
+				return State;
+			}
+		}
+
+		int bestDist = Integer.MAX_VALUE;
+
+		for ( Point pos : possibleTiles )
+		{
+			Pathfinder pathFinder = new Pathfinder( level.getGrid(), x, y, pos.x, pos.y, Global.CanMoveDiagonal, entity.size, entity );
+			pathFinder.getPath( entity.getTravelType(), level.pathfind, path );
 
 			if ( path.size > 1 && path.size < bestDist && path.size < 20 )
 			{
-				if ( entity.tile[0][0].level.getGameTile( path.get( 1 ) ).getPassable( entity.getTravelType(), entity ) )
+				if ( level.getGameTile( path.get( 1 ) ).getPassable( entity.getTravelType(), entity ) )
 				{
 					bestDist = path.size;
 
-					if ( bestPath != null )
-					{
-						Global.PointPool.freeAll( bestPath );
-					}
+					// keep this path by swapping buffers, the old best is recycled for the next query
+					Array<Point> temp = bestPath;
 					bestPath = path;
+					path = temp;
 				}
 			}
+
+			freePath( path );
 		}
 
 		Global.PointPool.freeAll( possibleTiles );
 
-		if ( bestPath == null )
+		if ( bestPath.size == 0 )
 		{
 			State = BehaviourTreeState.FAILED;
 			return State;
@@ -172,7 +202,7 @@ public class ActionMoveToAttack extends AbstractAction
 
 		int[] offset = new int[] { bestPath.get( 1 ).x - bestPath.get( 0 ).x, bestPath.get( 1 ).y - bestPath.get( 0 ).y };
 
-		Global.PointPool.freeAll( bestPath );
+		freePath( bestPath );
 
 		entity.tasks.add( new TaskMove( Direction.getDirection( offset ) ) );
 
@@ -180,6 +210,12 @@ public class ActionMoveToAttack extends AbstractAction
 		return State;
 	}
 
+	private void freePath( Array<Point> buffer )
+	{
+		Global.PointPool.freeAll( buffer );
+		buffer.clear();
+	}
+
 	@Override
 	public void cancel()
 	{
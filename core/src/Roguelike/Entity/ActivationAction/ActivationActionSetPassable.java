@@ -3,6 +3,7 @@ package Roguelike.Entity.ActivationAction;
 import Roguelike.Entity.Entity;
 import Roguelike.Entity.EnvironmentEntity;
 import Roguelike.Global;
+import Roguelike.Tiles.GameTile;
 import Roguelike.Util.EnumBitflag;
 import com.badlogic.gdx.utils.XmlReader;
 
@@ -27,6 +28,18 @@ public class ActivationActionSetPassable extends AbstractActivationAction
 	public void evaluate( EnvironmentEntity owningEntity, Entity activatingEntity, float delta )
 	{
 		owningEntity.passableBy = passableBy;
+
+		for ( int x = 0; x < owningEntity.size; x++ )
+		{
+			for ( int y = 0; y < owningEntity.size; y++ )
+			{
+				GameTile tile = owningEntity.tile[x][y];
+				if ( tile != null )
+				{
+					tile.level.invalidatePassability( tile.x, tile.y );
+				}
+			}
+		}
 	}
 
 	@Override
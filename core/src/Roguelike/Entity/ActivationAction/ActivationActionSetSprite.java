@@ -6,6 +6,7 @@ import Roguelike.Entity.EnvironmentEntity;
 import Roguelike.Global;
 import Roguelike.Sprite.Sprite;
 import Roguelike.Sprite.TilingSprite;
+import Roguelike.Tiles.GameTile;
 import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.XmlReader;
 
@@ -45,6 +46,7 @@ public class ActivationActionSetSprite extends AbstractActivationAction
 				{
 					ee.sprite = sprite;
 					ee.tilingSprite = tilingSprite;
+					invalidateTiling( ee );
 				}
 			}
 		}
@@ -52,6 +54,19 @@ public class ActivationActionSetSprite extends AbstractActivationAction
 		{
 			owningEntity.sprite = sprite;
 			owningEntity.tilingSprite = tilingSprite;
+			invalidateTiling( owningEntity );
+		}
+	}
+
+	private void invalidateTiling( EnvironmentEntity entity )
+	{
+		for ( int x = 0; x < entity.size; x++ )
+		{
+			for ( int y = 0; y < entity.size; y++ )
+			{
+				GameTile tile = entity.tile[x][y];
+				tile.level.invalidateTiling( tile.x, tile.y );
+			}
 		}
 	}
 
@@ -24,6 +24,7 @@ import Roguelike.Tiles.GameTile;
 import Roguelike.UI.Message;
 import Roguelike.Util.EnumBitflag;
 import Roguelike.Util.FastEnumMap;
+import Roguelike.Util.VariableBlock;
 
 import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.XmlReader.Element;
@@ -34,7 +35,7 @@ public abstract class Entity implements IGameObject
 	public abstract void update( float delta );
 
 	// ----------------------------------------------------------------------
-	public abstract int getStatistic( Statistic stat );
+	protected abstract int calculateStatistic( Statistic stat );
 
 	// ----------------------------------------------------------------------
 	protected abstract void internalLoad( String file );
@@ -132,7 +133,14 @@ public abstract class Entity implements IGameObject
 	// ----------------------------------------------------------------------
 	public int getVariable( Statistic stat )
 	{
-		return getVariableMap().get( stat.toString().toLowerCase() );
+		recalculateMaps();
+		return variables.get( stat );
+	}
+
+	// ----------------------------------------------------------------------
+	public int getStatistic( Statistic stat )
+	{
+		return getVariable( stat );
 	}
 
 	// ----------------------------------------------------------------------
@@ -152,96 +160,173 @@ public abstract class Entity implements IGameObject
 	public HashMap<String, Integer> getVariableMap()
 	{
 		recalculateMaps();
+
+		if ( isVariableMapStale )
+		{
+			isVariableMapStale = false;
+			variables.toMap( variableMap );
+		}
+
 		return variableMap;
 	}
 
 	// ----------------------------------------------------------------------
-	public HashMap<String, Integer> getBaseVariableMap()
+	public VariableBlock getVariables()
 	{
 		recalculateMaps();
-		return baseVariableMap;
+		return variables;
+	}
+
+	// ----------------------------------------------------------------------
+	public VariableBlock getBaseVariables()
+	{
+		recalculateMaps();
+		return baseVariables;
+	}
+
+	// ----------------------------------------------------------------------
+	public void markVariableDirty( int slot )
+	{
+		for ( int i = 0; i < numDirtyVariables; i++ )
+		{
+			if ( dirtyVariables[i] == slot ) { return; }
+		}
+
+		if ( numDirtyVariables == dirtyVariables.length )
+		{
+			int[] newDirty = new int[dirtyVariables.length * 2];
+			System.arraycopy( dirtyVariables, 0, newDirty, 0, dirtyVariables.length );
+			dirtyVariables = newDirty;
+		}
+
+		dirtyVariables[numDirtyVariables++] = slot;
 	}
 
 	// ----------------------------------------------------------------------
 	public void recalculateMaps()
 	{
+		if ( inventory.isVariableMapDirty )
+		{
+			isVariableMapDirty = true;
+			inventory.isVariableMapDirty = false;
+		}
+
 		if ( isVariableMapDirty )
 		{
 			isVariableMapDirty = false;
+			isVariableMapStale = true;
+			numDirtyVariables = 0;
 			calculateBaseVariableMap();
 			calculateVariableMap();
-			travelType = Passability.variableMapToTravelType( variableMap );
+			travelType = Passability.variableMapToTravelType( variables );
+		}
+		else if ( numDirtyVariables > 0 )
+		{
+			isVariableMapStale = true;
+
+			// take the dirty slots before recalculating, as calculateStatistic comes back in here through getBaseVariables
+			int[] swap = recalculatingVariables;
+			recalculatingVariables = dirtyVariables;
+			dirtyVariables = swap;
+			numRecalculatingVariables = numDirtyVariables;
+			numDirtyVariables = 0;
+
+			recalculateDirtyVariables();
+			numRecalculatingVariables = 0;
+			travelType = Passability.variableMapToTravelType( variables );
 		}
 	}
 
 	// ----------------------------------------------------------------------
-	protected void calculateVariableMap()
+	// Only the statistics whose handler equations read one of the dirty variables are evaluated again
+	protected void recalculateDirtyVariables()
 	{
-		variableMap.clear();
+		baseVariables.put( VariableBlock.HP, HP );
+		variables.put( VariableBlock.HP, HP );
+
+		Array<GameEventHandler> handlers = getAllHandlers();
 
 		for ( Statistic s : Statistic.values() )
 		{
-			variableMap.put( s.toString().toLowerCase(), statistics.get( s ) );
+			if ( reliesOnDirtyVariable( handlers, s ) )
+			{
+				variables.put( s, calculateStatistic( s ) );
+			}
 		}
 
-		for ( GameEventHandler handler : getAllHandlers() )
+		variables.put( VariableBlock.MAXHP, variables.get( Statistic.VITALITY ) * 10 );
+	}
+
+	// ----------------------------------------------------------------------
+	private boolean reliesOnDirtyVariable( Array<GameEventHandler> handlers, Statistic s )
+	{
+		for ( int i = 0; i < handlers.size; i++ )
 		{
-			for ( Statistic s : Statistic.values() )
+			GameEventHandler handler = handlers.get( i );
+
+			for ( int j = 0; j < numRecalculatingVariables; j++ )
 			{
-				String key = s.toString().toLowerCase();
-				variableMap.put( key, variableMap.get( key ) + handler.getStatistic( baseVariableMap, s ) );
+				if ( handler.statisticReliesOn( s, recalculatingVariables[j] ) ) { return true; }
 			}
 		}
 
-		variableMap.put( "hp", HP );
+		return false;
+	}
+
+	// ----------------------------------------------------------------------
+	protected void calculateVariableMap()
+	{
+		variables.clear();
+
+		variables.put( VariableBlock.HP, HP );
 
 		for ( EquipmentSlot slot : EquipmentSlot.values() )
 		{
 			Item equipped = inventory.getEquip( slot );
 			if ( equipped != null && equipped.type != null )
 			{
-				variableMap.put( equipped.type, 1 );
+				variables.put( equipped.getTypeSlot(), 1 );
 			}
 		}
 
 		for ( StatusEffectStack s : stacks )
 		{
-			variableMap.put( s.effect.name.toLowerCase(), s.count );
+			variables.put( s.slot, s.count );
 		}
 
 		for ( Statistic s : Statistic.values() )
 		{
-			variableMap.put( s.toString().toLowerCase(), getStatistic( s ) );
+			variables.put( s, calculateStatistic( s ) );
 		}
 
-		variableMap.put( "maxhp", variableMap.get( Statistic.VITALITY.toString().toLowerCase() ) * 10 );
+		variables.put( VariableBlock.MAXHP, variables.get( Statistic.VITALITY ) * 10 );
 	}
 
 	// ----------------------------------------------------------------------
 	protected void calculateBaseVariableMap()
 	{
-		baseVariableMap.clear();
+		baseVariables.clear();
 
 		for ( Statistic s : Statistic.values() )
 		{
-			baseVariableMap.put( s.toString().toLowerCase(), statistics.get( s ) + inventory.getStatistic( Statistic.emptyMap, s ) );
+			baseVariables.put( s, statistics.get( s ) + inventory.getStatistic( Statistic.emptyBlock, s ) );
 		}
 
-		baseVariableMap.put( "maxhp", baseVariableMap.get( Statistic.VITALITY.toString().toLowerCase() ) * 10 );
-		baseVariableMap.put( "hp", HP );
+		baseVariables.put( VariableBlock.MAXHP, baseVariables.get( Statistic.VITALITY ) * 10 );
+		baseVariables.put( VariableBlock.HP, HP );
 
 		for ( EquipmentSlot slot : EquipmentSlot.values() )
 		{
 			Item equipped = inventory.getEquip( slot );
 			if ( equipped != null && equipped.type != null )
 			{
-				baseVariableMap.put( equipped.type, 1 );
+				baseVariables.put( equipped.getTypeSlot(), 1 );
 			}
 		}
 
 		for ( StatusEffectStack s : stacks )
 		{
-			baseVariableMap.put( s.effect.name.toLowerCase(), s.count );
+			baseVariables.put( s.slot, s.count );
 		}
 	}
 
@@ -277,7 +362,7 @@ public abstract class Entity implements IGameObject
 
 		if ( dam != 0 )
 		{
-			isVariableMapDirty = true;
+			markVariableDirty( VariableBlock.HP );
 		}
 	}
 
@@ -295,7 +380,7 @@ public abstract class Entity implements IGameObject
 
 		if ( heal != 0 )
 		{
-			isVariableMapDirty = true;
+			markVariableDirty( VariableBlock.HP );
 		}
 	}
 
@@ -328,6 +413,7 @@ public abstract class Entity implements IGameObject
 				StatusEffectStack stack = new StatusEffectStack();
 				stack.count = 1;
 				stack.effect = se;
+				stack.slot = VariableBlock.getSlot( se.name.toLowerCase() );
 
 				stacks.add( stack );
 			}
@@ -508,9 +594,15 @@ public abstract class Entity implements IGameObject
 
 	// ----------------------------------------------------------------------
 	public boolean isVariableMapDirty = true;
+	protected boolean isVariableMapStale = true;
+	protected int[] dirtyVariables = new int[4];
+	protected int numDirtyVariables = 0;
+	protected int[] recalculatingVariables = new int[4];
+	protected int numRecalculatingVariables = 0;
 
 	// ----------------------------------------------------------------------
-	protected HashMap<String, Integer> baseVariableMap = new HashMap<String, Integer>();
+	protected VariableBlock baseVariables = new VariableBlock();
+	protected VariableBlock variables = new VariableBlock();
 	protected HashMap<String, Integer> variableMap = new HashMap<String, Integer>();
 	protected EnumBitflag<Passability> travelType = new EnumBitflag<Passability>();
 
@@ -575,6 +667,7 @@ public abstract class Entity implements IGameObject
 	{
 		public StatusEffect effect;
 		public int count;
+		public int slot;
 	}
 
 }
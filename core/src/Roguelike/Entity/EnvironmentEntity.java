@@ -1,6 +1,5 @@
 package Roguelike.Entity;
 
-import java.util.HashMap;
 
 import Roguelike.AssetManager;
 import Roguelike.Entity.ActivationAction.*;
@@ -14,6 +13,7 @@ import Roguelike.StatusEffect.StatusEffect;
 import Roguelike.Tiles.GameTile;
 import Roguelike.Tiles.Point;
 import Roguelike.Util.EnumBitflag;
+import Roguelike.Util.VariableBlock;
 
 import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.XmlReader.Element;
@@ -75,15 +75,15 @@ public class EnvironmentEntity extends Entity
 
 	// ----------------------------------------------------------------------
 	@Override
-	public int getStatistic( Statistic stat )
+	protected int calculateStatistic( Statistic stat )
 	{
 		int val = statistics.get( stat );
 
-		HashMap<String, Integer> variableMap = getBaseVariableMap();
+		VariableBlock variables = getBaseVariables();
 
 		for ( StatusEffect se : statusEffects )
 		{
-			val += se.getStatistic( variableMap, stat );
+			val += se.getStatistic( variables, stat );
 		}
 
 		return val;
@@ -100,6 +100,11 @@ public class EnvironmentEntity extends Entity
 	@Override
 	public void removeFromTile()
 	{
+		if ( tile[0][0] != null )
+		{
+			tile[0][0].level.unregisterEnvironmentEntity( this );
+		}
+
 		for ( int x = 0; x < size; x++ )
 		{
 			for ( int y = 0; y < size; y++ )
@@ -107,6 +112,8 @@ public class EnvironmentEntity extends Entity
 				if ( tile[x][y] != null )
 				{
 					tile[x][y].environmentEntity = null;
+					tile[x][y].level.invalidatePassability( tile[x][y].x, tile[x][y].y );
+					tile[x][y].level.invalidateTiling( tile[x][y].x, tile[x][y].y );
 					tile[x][y] = null;
 				}
 			}
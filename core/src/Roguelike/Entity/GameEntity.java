@@ -22,6 +22,7 @@ import Roguelike.StatusEffect.StatusEffect;
 import Roguelike.Tiles.GameTile;
 import Roguelike.Tiles.Point;
 import Roguelike.Util.EnumBitflag;
+import Roguelike.Util.VariableBlock;
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.utils.Array;
@@ -63,6 +64,8 @@ public class GameEntity extends Entity
 			int scaledVal = (int) ( (float) current * scaleVal );
 			statistics.put( stat, scaledVal );
 		}
+
+		isVariableMapDirty = true;
 	}
 
 	// ----------------------------------------------------------------------
@@ -75,12 +78,6 @@ public class GameEntity extends Entity
 	@Override
 	public void update( float cost )
 	{
-		if ( inventory.isVariableMapDirty )
-		{
-			isVariableMapDirty = true;
-			inventory.isVariableMapDirty = false;
-		}
-
 		actionDelayAccumulator += cost;
 
 		for ( IAbility a : slottedAbilities )
@@ -129,27 +126,27 @@ public class GameEntity extends Entity
 
 	// ----------------------------------------------------------------------
 	@Override
-	public int getStatistic( Statistic stat )
+	protected int calculateStatistic( Statistic stat )
 	{
-		int val = statistics.get( stat ) + inventory.getStatistic( Statistic.emptyMap, stat );
+		int val = statistics.get( stat ) + inventory.getStatistic( Statistic.emptyBlock, stat );
 
-		HashMap<String, Integer> variableMap = getBaseVariableMap();
+		VariableBlock variables = getBaseVariables();
 
-		variableMap.put( stat.toString().toLowerCase(), val );
+		variables.put( stat, val );
 
 		for ( IAbility a : slottedAbilities )
 		{
 			if ( a != null && a instanceof PassiveAbility )
 			{
 				PassiveAbility passive = (PassiveAbility) a;
-				val += passive.getStatistic( variableMap, stat );
+				val += passive.getStatistic( variables, stat );
 			}
 		}
 
 		for ( int i = 0; i < statusEffects.size; i++ )
 		{
 			StatusEffect se = statusEffects.get( i );
-			val += se.getStatistic( variableMap, stat );
+			val += se.getStatistic( variables, stat );
 		}
 
 		return val;
@@ -159,8 +156,20 @@ public class GameEntity extends Entity
 	@Override
 	protected void internalLoad( String entity )
 	{
+		internalLoad( loadDefinition( entity ) );
+	}
+
+	// ----------------------------------------------------------------------
+	// Parsed entity files, keyed by name. Loading only reads the elements, so every entity of a type can share them.
+	private static final HashMap<String, Element> definitionCache = new HashMap<String, Element>();
+
+	// ----------------------------------------------------------------------
+	private static synchronized Element loadDefinition( String entity )
+	{
+		Element xmlElement = definitionCache.get( entity );
+		if ( xmlElement != null ) { return xmlElement; }
+
 		XmlReader xml = new XmlReader();
-		Element xmlElement = null;
 
 		try
 		{
@@ -171,7 +180,12 @@ public class GameEntity extends Entity
 			e.printStackTrace();
 		}
 
-		internalLoad( xmlElement );
+		if ( xmlElement != null )
+		{
+			definitionCache.put( entity, xmlElement );
+		}
+
+		return xmlElement;
 	}
 
 	// ----------------------------------------------------------------------
@@ -351,6 +365,11 @@ public class GameEntity extends Entity
 	@Override
 	public void removeFromTile()
 	{
+		if ( tile[ 0 ][ 0 ] != null )
+		{
+			tile[ 0 ][ 0 ].level.unregisterEntity( this );
+		}
+
 		for ( int x = 0; x < size; x++ )
 		{
 			for ( int y = 0; y < size; y++ )
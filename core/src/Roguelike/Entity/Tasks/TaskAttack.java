@@ -598,7 +598,7 @@ public class TaskAttack extends AbstractTask
 					};
 
 					SpriteEffect effect = new SpriteEffect( sprite, Direction.CENTER, weapon != null && weapon.light != null ? weapon.light.copyNoFlag() : null );
-					tile.spriteEffects.add( effect );
+					tile.addSpriteEffect( effect );
 				}
 //				else
 //				{
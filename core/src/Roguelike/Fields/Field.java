@@ -65,6 +65,7 @@ public class Field implements IGameObject
 	public String[] tags = new String[0];
 
 	public GameTile tile;
+	public int activeIndex = -1;
 
 	public Array<SpriteGroup> groups = new Array<SpriteGroup>(  );
 
@@ -84,6 +85,27 @@ public class Field implements IGameObject
 
 	public float spawnSpeed = 0.25f;
 
+	// the sprite group the level's tiling cache was last built against
+	public SpriteGroup tilingGroup;
+
+	// ----------------------------------------------------------------------
+	/**
+	 * Invalidates the level's tiling around this field if a change in stacks has swapped its sprite group.
+	 */
+	public void updateTilingGroup()
+	{
+		SpriteGroup group = getSpriteGroup();
+		if ( group != tilingGroup )
+		{
+			tilingGroup = group;
+
+			if ( tile != null && tile.level != null )
+			{
+				tile.level.invalidateTiling( tile.x, tile.y );
+			}
+		}
+	}
+
 	public SpriteGroup getSpriteGroup()
 	{
 		for (int i = 0; i < groups.size; i++)
@@ -165,6 +187,7 @@ public class Field implements IGameObject
 				if ( tileField.fieldName.equals( fieldName ) )
 				{
 					tileField.stacks++;
+					tileField.updateTilingGroup();
 					fieldStore.put( tileField.layer, tileField );
 				}
 				// if different field, interact
@@ -188,7 +211,7 @@ public class Field implements IGameObject
 							fieldStore.put( layer, null );
 						}
 
-						newTile.fields.put( layer, null );
+						newTile.detachField( layer );
 
 						Field field = interaction.process( srcField, dstField );
 
@@ -22,7 +22,7 @@ public class SpriteOnDeathEffect extends AbstractOnDeathEffect
 		Light l = field.getSpriteGroup().light != null ? field.getSpriteGroup().light.copyNoFlag() : null;
 		Sprite s = sprite.copy();
 		s.renderDelay = s.animationDelay * (tile.getDist(field.tile)/3);
-		tile.spriteEffects.add(new SpriteEffect(s, Direction.CENTER, l));
+		tile.addSpriteEffect(new SpriteEffect(s, Direction.CENTER, l));
 	}
 
 	@Override
@@ -7,6 +7,7 @@ import net.objecthunter.exp4j.ExpressionBuilder;
 import Roguelike.Global;
 import Roguelike.Global.Statistic;
 import Roguelike.Util.FastEnumMap;
+import Roguelike.Util.VariableBlock;
 
 import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.XmlReader.Element;
@@ -17,6 +18,7 @@ public final class ConstantEvent
 {
 	public FastEnumMap<Statistic, String> equations = new FastEnumMap<Statistic, String>( Statistic.class );
 	private String[] reliesOn;
+	private transient FastEnumMap<Statistic, int[]> dependencies;
 
 	public void parse( Element xml )
 	{
@@ -51,9 +53,65 @@ public final class ConstantEvent
 		return EquationHelper.evaluate( eqn, variableMap );
 	}
 
+	public int getStatistic( VariableBlock variables, Statistic stat )
+	{
+		String eqn = equations.get( stat );
+
+		if ( eqn == null ) { return 0; }
+
+		return EquationHelper.evaluate( eqn, variables );
+	}
+
 	public void putStatistic( Statistic stat, String eqn )
 	{
 		equations.put( stat, eqn );
+		dependencies = null;
+	}
+
+	public boolean reliesOn( Statistic stat, int slot )
+	{
+		int[] slots = getDependencies( stat );
+
+		for ( int i = 0; i < slots.length; i++ )
+		{
+			if ( slots[i] == slot ) { return true; }
+		}
+
+		return false;
+	}
+
+	// The variables read by a statistic equation, together with any declared through the ReliesOn attribute
+	private int[] getDependencies( Statistic stat )
+	{
+		if ( dependencies == null )
+		{
+			dependencies = new FastEnumMap<Statistic, int[]>( Statistic.class );
+		}
+
+		int[] slots = dependencies.get( stat );
+
+		if ( slots == null )
+		{
+			String eqn = equations.get( stat );
+			String[] variableNames = eqn == null || Global.isNumber( eqn ) ? new String[0] : EquationHelper.compile( eqn ).variableNames;
+			String[] extraNames = eqn != null && reliesOn != null ? reliesOn : new String[0];
+
+			slots = new int[variableNames.length + extraNames.length];
+
+			for ( int i = 0; i < variableNames.length; i++ )
+			{
+				slots[i] = VariableBlock.getSlot( variableNames[i] );
+			}
+
+			for ( int i = 0; i < extraNames.length; i++ )
+			{
+				slots[variableNames.length + i] = VariableBlock.getSlot( extraNames[i] );
+			}
+
+			dependencies.put( stat, slots );
+		}
+
+		return slots;
 	}
 
 	public static ConstantEvent load( Element xml )
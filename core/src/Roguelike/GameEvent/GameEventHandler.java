@@ -24,6 +24,7 @@ import Roguelike.GameEvent.OnTurn.AbstractOnTurnEvent;
 import Roguelike.Sprite.Sprite;
 import Roguelike.Tiles.GameTile;
 import Roguelike.Util.FastEnumMap;
+import Roguelike.Util.VariableBlock;
 
 import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.XmlReader.Element;
@@ -47,6 +48,7 @@ public abstract class GameEventHandler implements IGameObject
 	public Array<AdditionalSprite> additionalSprites = new Array<AdditionalSprite>(  );
 
 	public Array<Object[]> extraData = new Array<Object[]>();
+	private transient int[] extraDataSlots;
 
 	// ----------------------------------------------------------------------
 	protected void appendExtraVariables(HashMap<String, Integer> variableMap)
@@ -57,6 +59,46 @@ public abstract class GameEventHandler implements IGameObject
 		}
 	}
 
+	// ----------------------------------------------------------------------
+	protected void appendExtraVariables( VariableBlock variables )
+	{
+		// Resolve the names once, the block is refilled on every recalculation
+		if ( extraDataSlots == null || extraDataSlots.length != extraData.size )
+		{
+			extraDataSlots = new int[extraData.size];
+			for ( int i = 0; i < extraData.size; i++ )
+			{
+				extraDataSlots[i] = VariableBlock.getSlot( (String)extraData.get( i )[0] );
+			}
+		}
+
+		for ( int i = 0; i < extraData.size; i++ )
+		{
+			variables.put( extraDataSlots[i], (Integer)extraData.get( i )[1] );
+		}
+	}
+
+	// ----------------------------------------------------------------------
+	public int getStatistic( VariableBlock variables, Statistic s )
+	{
+		appendExtraVariables( variables );
+
+		int val = 0;
+
+		if ( constantEvent != null )
+		{
+			val += constantEvent.getStatistic( variables, s );
+		}
+
+		return val;
+	}
+
+	// ----------------------------------------------------------------------
+	public boolean statisticReliesOn( Statistic s, int slot )
+	{
+		return constantEvent != null && constantEvent.reliesOn( s, slot );
+	}
+
 	// ----------------------------------------------------------------------
 	public int getStatistic( HashMap<String, Integer> variableMap, Statistic s )
 	{
@@ -73,13 +115,13 @@ public abstract class GameEventHandler implements IGameObject
 	}
 
 	// ----------------------------------------------------------------------
-	public FastEnumMap<Statistic, Integer> getStatistics( HashMap<String, Integer> variableMap )
+	public FastEnumMap<Statistic, Integer> getStatistics( VariableBlock variables )
 	{
 		FastEnumMap<Statistic, Integer> newMap = new FastEnumMap<Statistic, Integer>( Statistic.class );
 
 		for ( Statistic stat : Statistic.values() )
 		{
-			newMap.put( stat, getStatistic( variableMap, stat ) );
+			newMap.put( stat, getStatistic( variables, stat ) );
 		}
 
 		return newMap;
@@ -2,15 +2,15 @@ package Roguelike.GameEvent.OnTask;
 
 import java.util.HashMap;
 
-import net.objecthunter.exp4j.Expression;
-import net.objecthunter.exp4j.ExpressionBuilder;
 import Roguelike.Entity.Entity;
 import Roguelike.Entity.Tasks.AbstractTask;
 import Roguelike.GameEvent.IGameObject;
 
+import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.XmlReader.Element;
 
+import exp4j.Helpers.CompiledExpression;
 import exp4j.Helpers.EquationHelper;
 
 public final class CostTaskEvent extends AbstractOnTaskEvent
@@ -37,17 +37,16 @@ public final class CostTaskEvent extends AbstractOnTaskEvent
 			if ( conditionVal == 0 ) { return false; }
 		}
 
-		ExpressionBuilder expB = EquationHelper.createEquationBuilder( costEqn );
-		EquationHelper.setVariableNames( expB, variableMap, "" );
-		expB.variable( "cost" );
+		CompiledExpression exp = EquationHelper.compile( costEqn );
+		exp.setVariables( variableMap );
 
-		Expression exp = EquationHelper.tryBuild( expB );
-		if ( exp == null ) { return false; }
-
-		EquationHelper.setVariableValues( exp, variableMap, "" );
-		exp.setVariable( "cost", task.cost );
+		int costSlot = exp.getVariableSlot( "cost" );
+		if ( costSlot != -1 )
+		{
+			exp.setVariable( costSlot, task.cost );
+		}
 
-		float cost = (float) exp.evaluate();
+		float cost = (float) EquationHelper.evaluateRaw( exp, MathUtils.random );
 
 		task.cost = cost;
 
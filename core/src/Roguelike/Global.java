@@ -1,6 +1,7 @@
 package Roguelike;
 
 import Roguelike.Entity.Entity;
+import Roguelike.DungeonGeneration.PregeneratedLevelCache;
 import Roguelike.Entity.GameEntity;
 import Roguelike.GameEvent.Damage.DamageObject;
 import Roguelike.GameEvent.GameEventHandler;
@@ -19,7 +20,6 @@ import Roguelike.Screens.LoadingScreen;
 import Roguelike.Sound.Mixer;
 import Roguelike.Sound.RepeatingSoundEffect;
 import Roguelike.Tiles.GameTile;
-import Roguelike.Tiles.GameTile.LightData;
 import Roguelike.Tiles.Point;
 import Roguelike.UI.ClassList;
 import Roguelike.UI.LayeredDrawable;
@@ -29,6 +29,8 @@ import Roguelike.UI.Tooltip.TooltipStyle;
 import Roguelike.Util.Controls;
 import Roguelike.Util.EnumBitflag;
 import Roguelike.Util.FastEnumMap;
+import Roguelike.Util.SynchronizedPool;
+import Roguelike.Util.VariableBlock;
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.files.FileHandle;
 import com.badlogic.gdx.graphics.Color;
@@ -109,6 +111,7 @@ public class Global
 	public static int Funds = 500;
 	public static Array<Item> Market = new Array<Item>(  );
 	public static Array<Quest> Missions = new Array<Quest>(  );
+	public static PregeneratedLevelCache LevelCache = new PregeneratedLevelCache();
 	public static FastEnumMap<Item.EquipmentSlot, Integer> Loadout = new FastEnumMap<Item.EquipmentSlot, Integer>( Item.EquipmentSlot.class );
 
 	// ----------------------------------------------------------------------
@@ -118,9 +121,16 @@ public class Global
 	public static Mixer BGM;
 
 	// ----------------------------------------------------------------------
-	public static Pool<Point> PointPool = Pools.get( Point.class, Integer.MAX_VALUE );
+	// shared with dungeon generation running in the background
+	public static Pool<Point> PointPool = new SynchronizedPool<Point>( 4, Integer.MAX_VALUE )
+	{
+		@Override
+		protected Point newObject()
+		{
+			return new Point();
+		}
+	};
 	public static Pool<Light> LightPool = Pools.get( Light.class, Integer.MAX_VALUE );
-	public static Pool<LightData> LightDataPool = Pools.get( LightData.class, Integer.MAX_VALUE );
 
 	// ----------------------------------------------------------------------
 	static
@@ -163,6 +173,13 @@ public class Global
 	public static void fillMissions()
 	{
 		Missions = Global.QuestManager.getQuests( );
+		pregenerateMissions();
+	}
+
+	// ----------------------------------------------------------------------
+	public static void pregenerateMissions()
+	{
+		LevelCache.request( Missions, QuestManager.seed );
 	}
 
 	// ----------------------------------------------------------------------
@@ -220,8 +237,8 @@ public class Global
 	// ----------------------------------------------------------------------
 	public static void delete()
 	{
-		FileHandle actualFile = Gdx.files.local( "save.dat" );
-		actualFile.delete();
+		// waits for any autosave still being written, which would bring the file back
+		SaveFile.delete();
 	}
 
 	// ----------------------------------------------------------------------
@@ -964,6 +981,21 @@ public class Global
 			return travelType;
 		}
 
+		public static EnumBitflag<Passability> variableMapToTravelType( VariableBlock stats )
+		{
+			EnumBitflag<Passability> travelType = new EnumBitflag<Passability>();
+
+			for ( Passability p : Passability.values() )
+			{
+				if ( stats.get( p.stat ) > 0 )
+				{
+					travelType.setBit( p );
+				}
+			}
+
+			return travelType;
+		}
+
 		public static EnumBitflag<Passability> parse( String passable )
 		{
 			EnumBitflag<Passability> passableBy = new EnumBitflag<Passability>();
@@ -1071,6 +1103,8 @@ public class Global
 			}
 		}
 
+		public static VariableBlock emptyBlock = new VariableBlock();
+
 		public static HashMap<String, Integer> statsBlockToVariableBlock( FastEnumMap<Statistic, Integer> stats )
 		{
 			HashMap<String, Integer> variableMap = new HashMap<String, Integer>();
@@ -4,6 +4,7 @@ import Roguelike.Global.Statistic;
 import Roguelike.Items.Item.EquipmentSlot;
 import Roguelike.Items.Item.ItemCategory;
 import Roguelike.Util.FastEnumMap;
+import Roguelike.Util.VariableBlock;
 import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.XmlReader.Element;
 
@@ -176,6 +177,25 @@ public final class Inventory
 		return m_equipment.get( item.getMainSlot() ) == item;
 	}
 
+	public int getStatistic( VariableBlock variables, Statistic stat )
+	{
+		int val = 0;
+
+		for ( EquipmentSlot slot : EquipmentSlot.values() )
+		{
+			if ( m_equipment.containsKey( slot ) )
+			{
+				Item item = m_equipment.get( slot );
+				if ( slot == item.getMainSlot() )
+				{
+					val += item.getStatistic( variables, stat );
+				}
+			}
+		}
+
+		return val;
+	}
+
 	public int getStatistic( HashMap<String, Integer> variableMap, Statistic stat )
 	{
 		int val = 0;
@@ -17,6 +17,7 @@ import Roguelike.Sprite.SpriteAnimation.MoveAnimation;
 import Roguelike.Tiles.Point;
 import Roguelike.UI.Seperator;
 import Roguelike.UI.SpriteWidget;
+import Roguelike.Util.VariableBlock;
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.scenes.scene2d.ui.Label;
@@ -41,6 +42,7 @@ public final class Item extends GameEventHandler
 	public EquipmentSlot slot;
 	public ItemCategory category;
 	public String type = "";
+	private transient int typeSlot = -1;
 	public boolean canStack;
 	public int count = 1;
 	public Light light;
@@ -77,6 +79,16 @@ public final class Item extends GameEventHandler
 		}
 	}
 
+	// ----------------------------------------------------------------------
+	public int getTypeSlot()
+	{
+		if ( typeSlot == -1 )
+		{
+			typeSlot = VariableBlock.getSlot( type );
+		}
+		return typeSlot;
+	}
+
 	// ----------------------------------------------------------------------
 	public static Item load( String name )
 	{
@@ -606,6 +618,7 @@ public final class Item extends GameEventHandler
 		}
 		category = xmlElement.get( "Category", null ) != null ? ItemCategory.valueOf( xmlElement.get( "Category" ).toUpperCase() ) : category;
 		type = xmlElement.get( "Type", type ).toLowerCase();
+		typeSlot = -1;
 		quality = xmlElement.getInt( "Quality", quality );
 		value = xmlElement.getInt( "Value", value );
 		utilSlots = xmlElement.getInt( "UtilitySlots", utilSlots );
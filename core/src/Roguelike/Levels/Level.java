@@ -24,6 +24,12 @@ import Roguelike.Items.Inventory;
 import Roguelike.Items.Item;
 import Roguelike.Items.TreasureGenerator;
 import Roguelike.Lights.Light;
+import Roguelike.Lights.LightMap;
+import Roguelike.Lights.StaticLightBuffer;
+import Roguelike.Pathfinding.AStarPathfind;
+import Roguelike.Pathfinding.DijkstraMap;
+import Roguelike.Pathfinding.FOVCache;
+import Roguelike.Pathfinding.FloodFill;
 import Roguelike.Pathfinding.Pathfinder;
 import Roguelike.Pathfinding.ShadowCastCache;
 import Roguelike.Pathfinding.ShadowCaster;
@@ -41,11 +47,15 @@ import Roguelike.Tiles.GameTile;
 import Roguelike.Tiles.Point;
 import Roguelike.UI.Message;
 import Roguelike.Util.EnumBitflag;
+import Roguelike.Util.FastEnumMap;
+import Roguelike.Util.TileBitset;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntArray;
 
+import java.util.HashMap;
 import java.util.Iterator;
 
 public class Level
@@ -53,11 +63,34 @@ public class Level
 	// ####################################################################//
 	// region Constructor
 
+	@SuppressWarnings( "unchecked" )
 	public Level( GameTile[][] grid )
 	{
 		this.Grid = grid;
 		this.width = grid.length;
 		this.height = grid[0].length;
+
+		lightMap = new LightMap( width, height );
+
+		tilingCacheIDs = new long[width * height * TILING_CACHE_SLOTS];
+		tilingCacheMasks = new int[width * height * TILING_CACHE_SLOTS];
+		tilingCacheCount = new byte[width * height];
+
+		bucketsWidth = ( width + BUCKET_SIZE - 1 ) / BUCKET_SIZE;
+		bucketsHeight = ( height + BUCKET_SIZE - 1 ) / BUCKET_SIZE;
+		entityBuckets = new Array[bucketsWidth][bucketsHeight];
+		for ( int x = 0; x < bucketsWidth; x++ )
+		{
+			for ( int y = 0; y < bucketsHeight; y++ )
+			{
+				entityBuckets[x][y] = new Array<GameEntity>( false, 4 );
+			}
+		}
+
+		for ( FieldLayer layer : FieldLayer.values() )
+		{
+			activeFields.put( layer, new Array<Field>( false, 16 ) );
+		}
 	}
 
 	// endregion Constructor
@@ -74,8 +107,7 @@ public class Level
 		{
 			for ( int y = 0; y < height; y++ )
 			{
-				GameTile tile = Grid[x][y];
-				tile.ambientColour.set( acol );
+				lightMap.setAmbient( x, y, acol );
 			}
 		}
 
@@ -108,31 +140,9 @@ public class Level
 
 	private void calculateSingleLight( Light l )
 	{
-		Array<Point> output = l.shadowCastCache.getShadowCast( Grid, (int) l.lx, (int) l.ly, (int) l.baseIntensity + 1, null );
-
-		for ( Point tilePos : output )
-		{
-			GameTile tile = getGameTile( tilePos );
-
-			if (!tile.visible)
-			{
-				continue;
-			}
-
-			float dst = 1 - Vector2.dst2( l.lx, l.ly, tile.x, tile.y ) / ( l.actualIntensity * l.actualIntensity );
-			if ( dst < 0 )
-			{
-				dst = 0;
-			}
-
-			tempColour.set( l.colour );
-			tempColour.mul( tempColour.a );
-			tempColour.a = 1;
+		IntArray cells = fovCache.getShadowCast( Grid, (int) l.lx, (int) l.ly, (int) l.baseIntensity + 1, ShadowCaster.ShadowPassability, false );
 
-			tempColour.mul( dst );
-
-			tile.light.add( tempColour );
-		}
+		lightMap.addLight( l, cells, Grid );
 	}
 
 	private void getLightsForTile( GameTile tile, Array<Light> output, int viewRange )
@@ -143,13 +153,15 @@ public class Level
 		int px = player.tile[0][0].x;
 		int py = player.tile[0][0].y;
 
+		int staticLightKey = ( lx * height + ly ) * STATIC_LIGHT_SLOTS;
+
 		if ( tile.lightObj != null )
 		{
 			if ( checkLightCloseEnough( lx, ly, (int) tile.lightObj.baseIntensity, px, py, viewRange ) )
 			{
 				tile.lightObj.lx = lx;
 				tile.lightObj.ly = ly;
-				output.add( tile.lightObj );
+				addLight( staticLightKey, tile.lightObj, lx, ly, output );
 			}
 		}
 
@@ -165,7 +177,7 @@ public class Level
 					{
 						group.light.lx = lx;
 						group.light.ly = ly;
-						output.add( group.light );
+						addLight( staticLightKey + 2 + layer.ordinal(), group.light, lx, ly, output );
 					}
 				}
 			}
@@ -177,7 +189,7 @@ public class Level
 			{
 				tile.environmentEntity.light.lx = lx;
 				tile.environmentEntity.light.ly = ly;
-				output.add( tile.environmentEntity.light );
+				addLight( staticLightKey + 1, tile.environmentEntity.light, lx, ly, output );
 			}
 		}
 
@@ -221,6 +233,18 @@ public class Level
 		}
 	}
 
+	private void addLight( int staticLightKey, Light light, int lx, int ly, Array<Light> output )
+	{
+		if ( StaticLightBuffer.isStatic( light ) )
+		{
+			staticLights.bake( staticLightKey, light, lx, ly, Grid );
+		}
+		else
+		{
+			output.add( light );
+		}
+	}
+
 	private boolean checkLightCloseEnough( int lx, int ly, int intensity, int px, int py, int viewRange )
 	{
 		return Math.max( Math.abs( px - lx ), Math.abs( py - ly ) ) <= viewRange + intensity;
@@ -409,45 +433,52 @@ public class Level
 	// region Update
 
 	// ----------------------------------------------------------------------
+	/**
+	 * Applies the player's shadow cast as a diff against the last one applied, so only tiles entering or leaving view
+	 * are touched. Does nothing if the shadow cast has not been recalculated.
+	 */
 	public void updateVisibleTiles()
 	{
-		for ( int x = 0; x < width; x++ )
+		Array<Point> output = visibilityData.getShadowCast( Grid, player.tile[0][0].x, player.tile[0][0].y, player.getVariable( Statistic.SIGHT ), player, true );
+
+		if ( visibilityData.getVersion() == appliedVisibilityVersion ) { return; }
+		appliedVisibilityVersion = visibilityData.getVersion();
+
+		TileBitset nowVisible = visibilityData.getVisibleTiles();
+
+		// tiles leaving view
+		for ( int i = 0; i < visibleCells.size; i++ )
 		{
-			for ( int y = 0; y < height; y++ )
+			int packed = visibleCells.get( i );
+			int x = ShadowCaster.unpackX( packed );
+			int y = ShadowCaster.unpackY( packed );
+
+			if ( !nowVisible.get( x, y ) )
 			{
-				Grid[x][y].tempVisible = Grid[x][y].visible;
 				Grid[x][y].visible = false;
+				updateSeenBitflag( x, y );
 			}
 		}
 
-		shadowCastStore.clear();
-		shadowCastStore.addAll( visibilityData.getCurrentShadowCast() );
-		Array<Point> output = visibilityData.getShadowCast( Grid, player.tile[0][0].x, player.tile[0][0].y, player.getVariable( Statistic.SIGHT ), player, true );
-
+		// tiles entering view
+		visibleCells.clear();
 		for ( Point tilePos : output )
 		{
 			GameTile tile = getGameTile( tilePos );
 			if ( tile != null )
 			{
-				tile.visible = true;
+				visibleCells.add( ShadowCaster.pack( tilePos.x, tilePos.y ) );
 
-				if (!tile.seen)
+				if ( !tile.visible )
 				{
-					tile.seen = true;
-					updateUnseenBitflag( tilePos.x, tilePos.y );
+					tile.visible = true;
+					updateSeenBitflag( tilePos.x, tilePos.y );
 				}
-			}
-		}
-
-		for ( int x = 0; x < width; x++ )
-		{
-			for ( int y = 0; y < height; y++ )
-			{
-				GameTile tile = Grid[x][y];
 
-				if (tile.tempVisible != tile.visible)
+				if (!tile.seen)
 				{
-					updateSeenBitflag( x, y );
+					tile.seen = true;
+					updateUnseenBitflag( tilePos.x, tilePos.y );
 				}
 			}
 		}
@@ -481,6 +512,50 @@ public class Level
 		}
 	}
 
+	// ----------------------------------------------------------------------
+	/**
+	 * The tiling bitflag for the id at (x, y), as built by buildTilingBitflag, cached until something around the tile
+	 * changes its tiling through invalidateTiling.
+	 */
+	public int getTilingBitflag( int x, int y, long id )
+	{
+		int cell = x * height + y;
+		int base = cell * TILING_CACHE_SLOTS;
+		int count = tilingCacheCount[cell];
+
+		for ( int i = 0; i < count; i++ )
+		{
+			if ( tilingCacheIDs[base + i] == id ) { return tilingCacheMasks[base + i]; }
+		}
+
+		buildTilingBitflag( tempTilingBitflag, x, y, id );
+		int mask = tempTilingBitflag.getBitFlag();
+
+		if ( count < TILING_CACHE_SLOTS )
+		{
+			tilingCacheIDs[base + count] = id;
+			tilingCacheMasks[base + count] = mask;
+			tilingCacheCount[cell]++;
+		}
+
+		return mask;
+	}
+
+	// ----------------------------------------------------------------------
+	/**
+	 * Called when what the tile at (x, y) tiles with changes, which alters the bitflags of it and every neighbour.
+	 */
+	public void invalidateTiling( int x, int y )
+	{
+		for ( int nx = Math.max( 0, x - 1 ); nx <= Math.min( width - 1, x + 1 ); nx++ )
+		{
+			for ( int ny = Math.max( 0, y - 1 ); ny <= Math.min( height - 1, y + 1 ); ny++ )
+			{
+				tilingCacheCount[nx * height + ny] = 0;
+			}
+		}
+	}
+
 	// ----------------------------------------------------------------------
 	public void buildTilingBitflag(EnumBitflag<Direction> bitflag, int x, int y, long id)
 	{
@@ -758,6 +833,9 @@ public class Level
 
 	private void processPlayer()
 	{
+		// everything moves after the player acts, so the shared movement maps start again
+		dijkstraTurn++;
+
 		player.updatedAbilityDam = false;
 		player.updatedAbilityHeal = false;
 
@@ -840,8 +918,24 @@ public class Level
 			f.update( actionCost );
 			if ( f.stacks < 1 )
 			{
-				f.tile.fields.put( f.layer, null );
-				f.tile = null;
+				if ( f.tile.fields.get( f.layer ) == f )
+				{
+					f.tile.clearField( f.layer );
+				}
+				else
+				{
+					unregisterField( f );
+					f.tile = null;
+				}
+			}
+		}
+
+		// stacks changing can swap the sprite group a field tiles with
+		for ( Field f : tempFieldList )
+		{
+			if ( f.tile != null )
+			{
+				f.updateTilingGroup();
 			}
 		}
 
@@ -887,6 +981,7 @@ public class Level
 	public void startTurn()
 	{
 		turnCount = 0;
+		turnScheduler.resetTimings();
 	}
 
 	public void doTurnWork()
@@ -897,7 +992,9 @@ public class Level
 		}
 		else if (turnCount == 0)
 		{
+			long start = System.nanoTime();
 			player.AI.update( player );
+			turnScheduler.addTime( TurnScheduler.PHASE_PLAYER, System.nanoTime() - start );
 
 			if ( player.tasks.size > 0 )
 			{
@@ -906,21 +1003,39 @@ public class Level
 		}
 		else if (turnCount == 1)
 		{
+			long start = System.nanoTime();
 			processPlayer();
 			player.updateShadowCast();
+			turnScheduler.addTime( TurnScheduler.PHASE_PLAYER, System.nanoTime() - start );
 			turnCount = 2;
+			entityVisionPrefetched = false;
 		}
 		else if (turnCount == 2)
 		{
-			if ( toBeProcessedList.size > 0 )
+			if ( !entityVisionPrefetched )
+			{
+				long start = System.nanoTime();
+				prefetchEntityVision();
+				turnScheduler.addTime( TurnScheduler.PHASE_VISION, System.nanoTime() - start );
+				entityVisionPrefetched = true;
+			}
+
+			long start = System.nanoTime();
+
+			// one action from whoever has the most time banked, then back in the queue if they have time left
+			if ( turnScheduler.size > 0 )
 			{
-				GameEntity e = toBeProcessedList.get( 0 );
+				GameEntity e = turnScheduler.poll();
 				boolean complete = processEntityTurn( e );
 
-				if (complete)
+				if (!complete)
 				{
-					toBeProcessedList.removeIndex( 0 );
+					turnScheduler.add( e );
 				}
+
+				long now = System.nanoTime();
+				turnScheduler.addTime( TurnScheduler.PHASE_ENTITIES, now - start );
+				start = now;
 			}
 
 			if ( ActiveAbilities.size > 0 )
@@ -944,7 +1059,9 @@ public class Level
 				NewActiveAbilities.clear();
 			}
 
-			if (toBeProcessedList.size == 0 && !hasAbilitiesToUpdate())
+			turnScheduler.addTime( TurnScheduler.PHASE_ABILITIES, System.nanoTime() - start );
+
+			if (turnScheduler.size == 0 && !hasAbilitiesToUpdate())
 			{
 				if (player.tasks.size > 0)
 				{
@@ -969,6 +1086,43 @@ public class Level
 		}
 	}
 
+	/**
+	 * Run once as the monsters' turns start. Working out what a monster can see is a pure read of the grid, so the
+	 * shadow casts of everyone queued to act whose view is out of date are computed together on the worker pool and then
+	 * stored in each monster's visibility cache. Only the vision is prefetched, the monsters still decide and act one at
+	 * a time. When a monster acts its cache only recalculates if something has moved in its view since.
+	 */
+	private void prefetchEntityVision()
+	{
+		prefetchEntityList.clear();
+		fovCache.beginPrefetch( Grid );
+
+		for ( int i = 0; i < turnScheduler.size; i++ )
+		{
+			GameEntity e = turnScheduler.get( i );
+			GameTile tile = e.tile[0][0];
+			if ( e.HP <= 0 || tile == null )
+			{
+				continue;
+			}
+
+			int range = e.getStatistic( Statistic.SIGHT );
+			if ( e.visibilityCache.isStale( Grid, tile.x, tile.y, range, e ) )
+			{
+				fovCache.prefetch( tile.x, tile.y, range, ShadowCaster.ShadowPassability, false );
+				prefetchEntityList.add( e );
+			}
+		}
+
+		fovCache.endPrefetch();
+
+		for ( GameEntity e : prefetchEntityList )
+		{
+			e.updateShadowCast();
+		}
+		prefetchEntityList.clear();
+	}
+
 	private boolean processEntityTurn( GameEntity e )
 	{
 		if ( e.HP <= 0 )
@@ -1070,33 +1224,36 @@ public class Level
 
 	private void getAllEntitiesToBeProcessed( float cost )
 	{
-		for ( int x = 0; x < width; x++ )
+		// updating can kill or move entities, so work from a copy of the registry
+		tempEntityList.clear();
+		tempEntityList.addAll( entityList );
+
+		for ( GameEntity e : tempEntityList )
 		{
-			for ( int y = 0; y < height; y++ )
+			if ( e != player && e.tile[0][0] != null )
 			{
-				GameEntity e = Grid[x][y].entity;
-				if ( e != null && e != player && e.tile[0][0] == Grid[x][y] )
+				int x = e.tile[0][0].x;
+				int y = e.tile[0][0].y;
+
+				if ( e.tile[0][0].visible )
 				{
-					if ( e.tile[0][0].visible )
-					{
-						e.seen = true;
-					}
-					if ( !e.seen )
-					{
-						continue;
-					}
+					e.seen = true;
+				}
+				if ( !e.seen )
+				{
+					continue;
+				}
 
-					if ( Math.min( Math.abs( x - player.tile[0][0].x ), Math.abs( y - player.tile[0][0].y ) ) > 25 )
-					{
-						continue;
-					}
+				if ( Math.min( Math.abs( x - player.tile[0][0].x ), Math.abs( y - player.tile[0][0].y ) ) > 25 )
+				{
+					continue;
+				}
 
-					e.update( cost );
+				e.update( cost );
 
-					if ( e.actionDelayAccumulator > 0 || e.tasks.size > 0 )
-					{
-						toBeProcessedList.add( e );
-					}
+				if ( e.actionDelayAccumulator > 0 || e.tasks.size > 0 )
+				{
+					turnScheduler.add( e );
 				}
 			}
 		}
@@ -1119,25 +1276,7 @@ public class Level
 
 	public final Entity getEntityWithUID( String UID )
 	{
-		for ( int x = 0; x < width; x++ )
-		{
-			for ( int y = 0; y < height; y++ )
-			{
-				GameTile tile = getGameTile( x, y );
-
-				if ( tile.environmentEntity != null )
-				{
-					if ( tile.environmentEntity.UID.equals( UID ) ) { return tile.environmentEntity; }
-				}
-
-				if ( tile.entity != null )
-				{
-					if ( tile.entity.UID.equals( UID ) ) { return tile.entity; }
-				}
-			}
-		}
-
-		return null;
+		return entityUIDMap.get( UID );
 	}
 
 	public final GameTile getGameTile( int x, int y )
@@ -1149,34 +1288,43 @@ public class Level
 
 	public final void getAllFields( Array<Field> list )
 	{
-		for ( int x = 0; x < width; x++ )
+		for ( FieldLayer layer : FieldLayer.values() )
 		{
-			for ( int y = 0; y < height; y++ )
-			{
-				if ( Grid[x][y].hasFields )
-				{
-					for ( FieldLayer layer : FieldLayer.values() )
-					{
-						Field field = Grid[x][y].fields.get( layer );
-						if ( field != null )
-						{
-							list.add( field );
-						}
-					}
-				}
-			}
+			list.addAll( activeFields.get( layer ) );
 		}
 	}
 
 	public final void getAllEntities( Array<GameEntity> list )
 	{
-		for ( int x = 0; x < width; x++ )
+		list.addAll( entityList );
+	}
+
+	public final void getEntitiesInRange( int x, int y, int range, Array<GameEntity> list )
+	{
+		// entities are bucketed by their origin tile, so widen the low side to catch the footprint of large entities
+		int minX = Math.max( 0, ( x - range - ( largestEntitySize - 1 ) ) / BUCKET_SIZE );
+		int minY = Math.max( 0, ( y - range - ( largestEntitySize - 1 ) ) / BUCKET_SIZE );
+		int maxX = Math.min( bucketsWidth - 1, ( x + range ) / BUCKET_SIZE );
+		int maxY = Math.min( bucketsHeight - 1, ( y + range ) / BUCKET_SIZE );
+
+		for ( int bx = minX; bx <= maxX; bx++ )
 		{
-			for ( int y = 0; y < height; y++ )
+			for ( int by = minY; by <= maxY; by++ )
 			{
-				if ( Grid[x][y].entity != null && Grid[x][y].entity.tile[0][0] == Grid[x][y] )
+				Array<GameEntity> bucket = entityBuckets[bx][by];
+				for ( int i = 0; i < bucket.size; i++ )
 				{
-					list.add( Grid[x][y].entity );
+					GameEntity e = bucket.get( i );
+					int ex = e.tile[0][0].x;
+					int ey = e.tile[0][0].y;
+
+					int dx = Math.max( 0, Math.max( ex - x, x - ( ex + e.size - 1 ) ) );
+					int dy = Math.max( 0, Math.max( ey - y, y - ( ey + e.size - 1 ) ) );
+
+					if ( dx <= range && dy <= range )
+					{
+						list.add( e );
+					}
 				}
 			}
 		}
@@ -1184,34 +1332,22 @@ public class Level
 
 	public final void getAllEnvironmentEntities( Array<EnvironmentEntity> list )
 	{
-		for ( int x = 0; x < width; x++ )
-		{
-			for ( int y = 0; y < height; y++ )
-			{
-				if ( Grid[x][y].environmentEntity != null && Grid[x][y].environmentEntity.tile[0][0] == Grid[x][y] )
-				{
-					list.add( Grid[x][y].environmentEntity );
-				}
-			}
-		}
+		list.addAll( environmentEntityList );
 	}
 
 	public final void getAllEnvironmentEntitiesToBeProcessed( Array<EnvironmentEntity> list )
 	{
-		for ( int x = 0; x < width; x++ )
+		for ( EnvironmentEntity e : environmentEntityList )
 		{
-			for ( int y = 0; y < height; y++ )
-			{
-				if ( Grid[x][y].environmentEntity != null && Grid[x][y].environmentEntity.tile[0][0] == Grid[x][y] )
-				{
-					if ( Math.min( Math.abs( x - player.tile[0][0].x ), Math.abs( y - player.tile[0][0].y ) ) > 25 )
-					{
-						continue;
-					}
+			int x = e.tile[0][0].x;
+			int y = e.tile[0][0].y;
 
-					list.add( Grid[x][y].environmentEntity );
-				}
+			if ( Math.min( Math.abs( x - player.tile[0][0].x ), Math.abs( y - player.tile[0][0].y ) ) > 25 )
+			{
+				continue;
 			}
+
+			list.add( e );
 		}
 	}
 
@@ -1230,84 +1366,48 @@ public class Level
 
 	private boolean enemyVisible()
 	{
-		boolean enemy = false;
+		tempEntityList.clear();
+		getEntitiesInRange( player.tile[0][0].x, player.tile[0][0].y, player.getVariable( Statistic.SIGHT ), tempEntityList );
 
-		for ( int x = 0; x < width; x++ )
+		for ( GameEntity e : tempEntityList )
 		{
-			for ( int y = 0; y < height; y++ )
+			if ( e.isAllies( player ) )
 			{
-				if ( Grid[x][y].visible && Grid[x][y].entity != null )
-				{
-					if ( !Grid[x][y].entity.isAllies( player ) )
-					{
-						enemy = true;
-						break;
-					}
-				}
+				continue;
 			}
-			if ( enemy )
+
+			for ( int x = 0; x < e.size; x++ )
 			{
-				break;
+				for ( int y = 0; y < e.size; y++ )
+				{
+					if ( e.tile[x][y] != null && e.tile[x][y].visible ) { return true; }
+				}
 			}
 		}
 
-		return enemy;
+		return false;
 	}
 
 	private boolean hasActiveEffects()
 	{
-		boolean activeEffects = false;
-
-		for ( int x = 0; x < width; x++ )
+		// only visible tiles are considered, and those are exactly the tiles of the players current shadow cast
+		for ( Point pos : visibilityData.getCurrentShadowCast() )
 		{
-			for ( int y = 0; y < height; y++ )
-			{
-				if ( !Grid[x][y].visible )
-				{
-					continue;
-				}
-
-				if ( Grid[x][y].spriteEffects.size > 0 )
-				{
-					activeEffects = true;
-					break;
+			GameTile tile = getGameTile( pos );
 
-				}
+			if ( tile == null || !tile.visible )
+			{
+				continue;
+			}
 
-				{
-					Entity e = Grid[x][y].entity;
-					if ( e != null )
-					{
-						boolean active = hasActiveEffects( e );
-						if ( active )
-						{
-							activeEffects = true;
-							break;
-						}
-					}
-				}
+			if ( tile.spriteEffects.size > 0 ) { return true; }
 
-				{
-					Entity e = Grid[x][y].environmentEntity;
-					if ( e != null )
-					{
-						boolean active = hasActiveEffects( e );
-						if ( active )
-						{
-							activeEffects = true;
-							break;
-						}
-					}
-				}
-			}
+			if ( tile.entity != null && hasActiveEffects( tile.entity ) ) { return true; }
 
-			if ( activeEffects )
-			{
-				break;
-			}
+			if ( tile.environmentEntity != null && hasActiveEffects( tile.environmentEntity ) ) { return true; }
 		}
 
-		return activeEffects;
+		return false;
 	}
 
 	private boolean hasActiveEffects( Entity e )
@@ -1328,6 +1428,147 @@ public class Level
 
 	// endregion Getters
 	// ####################################################################//
+	// region Registry
+
+	public final void registerEntity( GameEntity e )
+	{
+		if ( !entityList.contains( e, true ) )
+		{
+			entityList.add( e );
+		}
+
+		GameTile origin = e.tile[0][0];
+		entityBuckets[origin.x / BUCKET_SIZE][origin.y / BUCKET_SIZE].add( e );
+		largestEntitySize = Math.max( largestEntitySize, e.size );
+
+		if ( e.UID != null )
+		{
+			entityUIDMap.put( e.UID, e );
+		}
+	}
+
+	public final void unregisterEntity( GameEntity e )
+	{
+		GameTile origin = e.tile[0][0];
+		if ( origin != null )
+		{
+			entityBuckets[origin.x / BUCKET_SIZE][origin.y / BUCKET_SIZE].removeValue( e, true );
+		}
+
+		entityList.removeValue( e, true );
+
+		if ( e.UID != null && entityUIDMap.get( e.UID ) == e )
+		{
+			entityUIDMap.remove( e.UID );
+		}
+	}
+
+	public final void registerEnvironmentEntity( EnvironmentEntity e )
+	{
+		if ( !environmentEntityList.contains( e, true ) )
+		{
+			environmentEntityList.add( e );
+		}
+
+		if ( e.UID != null )
+		{
+			entityUIDMap.put( e.UID, e );
+		}
+	}
+
+	public final void unregisterEnvironmentEntity( EnvironmentEntity e )
+	{
+		environmentEntityList.removeValue( e, true );
+
+		if ( e.UID != null && entityUIDMap.get( e.UID ) == e )
+		{
+			entityUIDMap.remove( e.UID );
+		}
+	}
+
+	public final void registerField( Field field )
+	{
+		if ( field.activeIndex >= 0 ) { return; }
+
+		Array<Field> list = activeFields.get( field.layer );
+		field.activeIndex = list.size;
+		list.add( field );
+	}
+
+	public final void unregisterField( Field field )
+	{
+		if ( field.activeIndex < 0 ) { return; }
+
+		Array<Field> list = activeFields.get( field.layer );
+		Field last = list.pop();
+		if ( last != field )
+		{
+			list.set( field.activeIndex, last );
+			last.activeIndex = field.activeIndex;
+		}
+
+		field.activeIndex = -1;
+	}
+
+	// endregion Registry
+	// ####################################################################//
+	// region Dijkstra Maps
+
+	public final DijkstraMap getDijkstraMap( Array<Point> goals, EnumBitflag<Passability> travelType )
+	{
+		for ( DijkstraMap map : dijkstraMaps )
+		{
+			if ( map.matches( Grid, goals, travelType, dijkstraTurn ) ) { return map; }
+		}
+
+		// reuse a map left over from an earlier turn, else grow the cache, else recycle the oldest
+		DijkstraMap map = null;
+		for ( DijkstraMap oldMap : dijkstraMaps )
+		{
+			if ( oldMap.turn != dijkstraTurn )
+			{
+				map = oldMap;
+				break;
+			}
+		}
+
+		if ( map == null )
+		{
+			if ( dijkstraMaps.size < MAX_DIJKSTRA_MAPS )
+			{
+				map = new DijkstraMap();
+			}
+			else
+			{
+				map = dijkstraMaps.removeIndex( 0 );
+			}
+		}
+		else
+		{
+			dijkstraMaps.removeValue( map, true );
+		}
+
+		map.set( Grid, goals, travelType, dijkstraTurn );
+		dijkstraMaps.add( map );
+
+		return map;
+	}
+
+	public final void invalidatePassability( int x, int y )
+	{
+		fovCache.clear();
+
+		for ( DijkstraMap map : dijkstraMaps )
+		{
+			if ( map.turn == dijkstraTurn )
+			{
+				map.tileChanged( x, y );
+			}
+		}
+	}
+
+	// endregion Dijkstra Maps
+	// ####################################################################//
 	// region Misc
 
 	public void addActiveAbility( ActiveAbility aa )
@@ -1340,7 +1581,7 @@ public class Level
 		Array<GameEntity> validEntities = new Array<GameEntity>(  );
 
 		Array<GameEntity> temp = new Array<GameEntity>(  );
-		getAllEntities( temp );
+		getEntitiesInRange( player.tile[0][0].x, player.tile[0][0].y, 10, temp );
 
 		for (GameEntity ge : temp)
 		{
@@ -1360,6 +1601,96 @@ public class Level
 		}
 	}
 
+	/**
+	 * Moves the active window, the part of the level advance updates each frame, to be centred on the player. Tiles
+	 * dropping out of the window get the maintenance an unseen tile would get one last time, as nothing touches them
+	 * again until they are back inside.
+	 */
+	private void updateActiveWindow( int viewRange )
+	{
+		int px = player.tile[0][0].x;
+		int py = player.tile[0][0].y;
+
+		int screenRange = Math.max( Global.Resolution[0], Global.Resolution[1] ) / ( 2 * Global.TileSize ) + 1;
+		int range = Math.max( viewRange + ACTIVE_WINDOW_LIGHT_MARGIN, screenRange );
+
+		int minX = Math.max( 0, px - range );
+		int minY = Math.max( 0, py - range );
+		int maxX = Math.min( width - 1, px + range );
+		int maxY = Math.min( height - 1, py + range );
+
+		if ( minX == activeMinX && minY == activeMinY && maxX == activeMaxX && maxY == activeMaxY ) { return; }
+
+		for ( int x = activeMinX; x <= activeMaxX; x++ )
+		{
+			for ( int y = activeMinY; y <= activeMaxY; y++ )
+			{
+				if ( x < minX || x > maxX || y < minY || y > maxY )
+				{
+					clearEffectsForTile( Grid[x][y] );
+					cleanUpDeadForTile( Grid[x][y] );
+				}
+			}
+		}
+
+		activeMinX = minX;
+		activeMinY = minY;
+		activeMaxX = maxX;
+		activeMaxY = maxY;
+	}
+
+	private boolean isInActiveWindow( int x, int y )
+	{
+		return x >= activeMinX && x <= activeMaxX && y >= activeMinY && y <= activeMaxY;
+	}
+
+	/**
+	 * Called when a sprite effect is added to a tile, so effects outside the active window still resolve this frame.
+	 */
+	public void notifySpriteEffect( GameTile tile )
+	{
+		if ( !isInActiveWindow( tile.x, tile.y ) )
+		{
+			outOfWindowEffectTiles.add( tile );
+		}
+	}
+
+	private void cleanUpOutsideActiveWindow()
+	{
+		// sprite effects can carry the hit of an ability, so resolve them like any unseen tile's
+		for ( GameTile tile : outOfWindowEffectTiles )
+		{
+			if ( !isInActiveWindow( tile.x, tile.y ) )
+			{
+				clearEffectsForTile( tile );
+			}
+		}
+		outOfWindowEffectTiles.clear();
+
+		// things outside the window can still die, so find them through the registries instead of the grid
+		windowEntityList.clear();
+		windowEntityList.addAll( entityList );
+		for ( GameEntity e : windowEntityList )
+		{
+			GameTile tile = e.tile[0][0];
+			if ( tile != null && tile.entity == e && !isInActiveWindow( tile.x, tile.y ) )
+			{
+				cleanUpDeadForTile( tile );
+			}
+		}
+
+		windowEnvironmentEntityList.clear();
+		windowEnvironmentEntityList.addAll( environmentEntityList );
+		for ( EnvironmentEntity e : windowEnvironmentEntityList )
+		{
+			GameTile tile = e.tile[0][0];
+			if ( tile != null && tile.environmentEntity == e && !isInActiveWindow( tile.x, tile.y ) )
+			{
+				cleanUpDeadForTile( tile );
+			}
+		}
+	}
+
 	public void advance( float delta )
 	{
 		updateAccumulator += delta;
@@ -1373,12 +1704,17 @@ public class Level
 
 		player.updateShadowCast();
 		updateVisibleTiles();
+		fovCache.clear();
 		lightList.clear();
+		lightMap.resetToAmbient();
+		staticLights.begin( width, height );
 
 		int playerViewRange = player.getVariable( Statistic.SIGHT );
-		for ( int x = 0; x < width; x++ )
+		updateActiveWindow( playerViewRange );
+
+		for ( int x = activeMinX; x <= activeMaxX; x++ )
 		{
-			for ( int y = 0; y < height; y++ )
+			for ( int y = activeMinY; y <= activeMaxY; y++ )
 			{
 				GameTile tile = Grid[x][y];
 
@@ -1397,12 +1733,12 @@ public class Level
 
 				cleanUpDeadForTile( tile );
 
-				tile.light.set( tile.ambientColour );
-
 				getLightsForTile( tile, lightList, playerViewRange );
 			}
 		}
 
+		cleanUpOutsideActiveWindow();
+
 		if ( ActiveAbilities.size > 0 )
 		{
 			for ( ActiveAbility aa : ActiveAbilities )
@@ -1439,6 +1775,16 @@ public class Level
 			}
 		}
 
+		staticLights.end();
+
+		for ( Point tilePos : visibilityData.getCurrentShadowCast() )
+		{
+			if ( tilePos.x >= 0 && tilePos.y >= 0 && tilePos.x < width && tilePos.y < height )
+			{
+				staticLights.apply( lightMap, tilePos.x, tilePos.y );
+			}
+		}
+
 		calculateLight( delta, lightList );
 
 		for ( RepeatingSoundEffect sound : ambientSounds )
@@ -1460,20 +1806,52 @@ public class Level
 	private Array<ActiveAbility> NewActiveAbilities = new Array<ActiveAbility>( false, 16 );
 
 	public boolean affectedByDayNight = false;
-	private Array<GameEntity> toBeProcessedList = new Array<GameEntity>( false, 16 );
+	public final TurnScheduler turnScheduler = new TurnScheduler();
+	private boolean entityVisionPrefetched;
+	private final Array<GameEntity> prefetchEntityList = new Array<GameEntity>( false, 16 );
+	private Array<GameEntity> tempEntityList = new Array<GameEntity>( false, 16 );
 	private Array<Light> lightList = new Array<Light>( false, 16 );
 	private Array<EnvironmentEntity> tempEnvironmentEntityList = new Array<EnvironmentEntity>( false, 16 );
 	private Array<Field> tempFieldList = new Array<Field>( false, 16 );
 	private Array<Light> tempLightList = new Array<Light>( false, 16 );
+
+	// the brightest light in the data has an intensity of 5, so this covers any light that can reach the player's view
+	private static final int ACTIVE_WINDOW_LIGHT_MARGIN = 8;
+	private int activeMinX = 0;
+	private int activeMinY = 0;
+	private int activeMaxX = -1;
+	private int activeMaxY = -1;
+	private final Array<GameTile> outOfWindowEffectTiles = new Array<GameTile>( false, 16 );
+	private final Array<GameEntity> windowEntityList = new Array<GameEntity>( false, 16 );
+	private final Array<EnvironmentEntity> windowEnvironmentEntityList = new Array<EnvironmentEntity>( false, 16 );
+
+	// tile light, environment entity light, then one per field layer
+	private static final int STATIC_LIGHT_SLOTS = 2 + FieldLayer.values().length;
+	private final StaticLightBuffer staticLights = new StaticLightBuffer();
+	public final LightMap lightMap;
+
+	// tile, field and environment entity tiling sprites give at most a few ids per tile
+	private static final int TILING_CACHE_SLOTS = 4;
+	private final long[] tilingCacheIDs;
+	private final int[] tilingCacheMasks;
+	private final byte[] tilingCacheCount;
+	private final EnumBitflag<Direction> tempTilingBitflag = new EnumBitflag<Direction>();
 	private float updateDeltaStep = 0.05f;
 	private float updateAccumulator;
 
-	private Array<Point> shadowCastStore = new Array<Point>(  );
+	private final IntArray visibleCells = new IntArray();
+	private int appliedVisibilityVersion = -1;
 
 	private static final EnumBitflag<Passability> ItemDropPassability = new EnumBitflag<Passability>( Passability.WALK, Passability.ENTITY );
 
 	public final ShadowCastCache visibilityData = new ShadowCastCache();
-	private final Color tempColour = new Color();
+	public final AStarPathfind pathfind = new AStarPathfind();
+	public final FloodFill floodFill = new FloodFill();
+	public final FOVCache fovCache = new FOVCache();
+
+	private static final int MAX_DIJKSTRA_MAPS = 16;
+	private final Array<DijkstraMap> dijkstraMaps = new Array<DijkstraMap>( MAX_DIJKSTRA_MAPS );
+	private int dijkstraTurn = 0;
 
 	public Array<ActiveAbility> ActiveAbilities = new Array<ActiveAbility>( false, 16 );
 	public Array<RepeatingSoundEffect> ambientSounds = new Array<RepeatingSoundEffect>();
@@ -1494,6 +1872,16 @@ public class Level
 	public int width;
 	public int height;
 
+	private static final int BUCKET_SIZE = 8;
+	private final Array<GameEntity> entityList = new Array<GameEntity>( 16 );
+	private final Array<EnvironmentEntity> environmentEntityList = new Array<EnvironmentEntity>( 16 );
+	private final HashMap<String, Entity> entityUIDMap = new HashMap<String, Entity>();
+	private final Array<GameEntity>[][] entityBuckets;
+	private final int bucketsWidth;
+	private final int bucketsHeight;
+	private int largestEntitySize = 1;
+	private final FastEnumMap<FieldLayer, Array<Field>> activeFields = new FastEnumMap<FieldLayer, Array<Field>>( FieldLayer.class );
+
 	public float enemySoundAccumulator;
 
 	public static final SoundInstance pickupXPSound = SoundInstance.getSound( "PickupXP" );
@@ -0,0 +1,188 @@
+package Roguelike.Levels;
+
+import java.util.Arrays;
+
+import Roguelike.Entity.GameEntity;
+
+/**
+ * The entities waiting to act this turn, kept as a binary max heap on the action delay they have banked so the entity
+ * furthest ahead always acts next. Entities with equal time act in the order they were added. Also keeps how long each
+ * phase of the turn has spent working, so a slow turn can be traced to the player, the monsters or the abilities.
+ */
+public final class TurnScheduler
+{
+	// ----------------------------------------------------------------------
+	public static final int PHASE_PLAYER = 0;
+	public static final int PHASE_VISION = 1;
+	public static final int PHASE_ENTITIES = 2;
+	public static final int PHASE_ABILITIES = 3;
+	public static final int PHASE_COUNT = 4;
+	private static final String[] PHASE_NAMES = { "Player", "Vision", "Entities", "Abilities" };
+
+	// ----------------------------------------------------------------------
+	public final long[] phaseNanos = new long[PHASE_COUNT];
+	public final int[] phaseSteps = new int[PHASE_COUNT];
+
+	// the timings of the last finished turn, built once per turn for the debug overlay
+	private final StringBuilder timingsBuilder = new StringBuilder();
+	private String lastTurnTimings = "Turn:";
+
+	// ----------------------------------------------------------------------
+	public int size;
+
+	private GameEntity[] entities = new GameEntity[16];
+	private float[] keys = new float[16];
+	private int[] order = new int[16];
+	private int nextOrder;
+
+	// ----------------------------------------------------------------------
+	public void add( GameEntity e )
+	{
+		if ( size == entities.length )
+		{
+			entities = Arrays.copyOf( entities, size * 2 );
+			keys = Arrays.copyOf( keys, size * 2 );
+			order = Arrays.copyOf( order, size * 2 );
+		}
+
+		if ( size == 0 )
+		{
+			nextOrder = 0;
+		}
+
+		int i = size++;
+		entities[i] = e;
+		keys[i] = e.actionDelayAccumulator;
+		order[i] = nextOrder++;
+		siftUp( i );
+	}
+
+	// ----------------------------------------------------------------------
+	/**
+	 * The i'th queued entity in heap order, for looking over everything still to act.
+	 */
+	public GameEntity get( int i )
+	{
+		return entities[i];
+	}
+
+	// ----------------------------------------------------------------------
+	public GameEntity poll()
+	{
+		if ( size == 0 ) { return null; }
+
+		GameEntity top = entities[0];
+
+		size--;
+		if ( size > 0 )
+		{
+			move( size, 0 );
+			siftDown( 0 );
+		}
+		entities[size] = null;
+
+		return top;
+	}
+
+	// ----------------------------------------------------------------------
+	public void resetTimings()
+	{
+		timingsBuilder.setLength( 0 );
+		timingsBuilder.append( "Turn:" );
+		for ( int i = 0; i < PHASE_COUNT; i++ )
+		{
+			timingsBuilder.append( ' ' ).append( PHASE_NAMES[i] ).append( ' ' );
+			timingsBuilder.append( phaseNanos[i] / 1000 ).append( "us/" ).append( phaseSteps[i] );
+		}
+		lastTurnTimings = timingsBuilder.toString();
+
+		Arrays.fill( phaseNanos, 0 );
+		Arrays.fill( phaseSteps, 0 );
+	}
+
+	// ----------------------------------------------------------------------
+	public void addTime( int phase, long nanos )
+	{
+		phaseNanos[phase] += nanos;
+		phaseSteps[phase]++;
+	}
+
+	// ----------------------------------------------------------------------
+	public String getLastTurnTimings()
+	{
+		return lastTurnTimings;
+	}
+
+	// ----------------------------------------------------------------------
+	private boolean before( int a, int b )
+	{
+		if ( keys[a] != keys[b] ) { return keys[a] > keys[b]; }
+		return order[a] < order[b];
+	}
+
+	// ----------------------------------------------------------------------
+	private void move( int from, int to )
+	{
+		entities[to] = entities[from];
+		keys[to] = keys[from];
+		order[to] = order[from];
+	}
+
+	// ----------------------------------------------------------------------
+	private void swap( int a, int b )
+	{
+		GameEntity e = entities[a];
+		float key = keys[a];
+		int o = order[a];
+
+		move( b, a );
+
+		entities[b] = e;
+		keys[b] = key;
+		order[b] = o;
+	}
+
+	// ----------------------------------------------------------------------
+	private void siftUp( int i )
+	{
+		while ( i > 0 )
+		{
+			int parent = ( i - 1 ) >> 1;
+			if ( !before( i, parent ) )
+			{
+				break;
+			}
+
+			swap( i, parent );
+			i = parent;
+		}
+	}
+
+	// ----------------------------------------------------------------------
+	private void siftDown( int i )
+	{
+		while ( true )
+		{
+			int left = i * 2 + 1;
+			if ( left >= size )
+			{
+				break;
+			}
+
+			int best = left;
+			int right = left + 1;
+			if ( right < size && before( right, left ) )
+			{
+				best = right;
+			}
+
+			if ( !before( best, i ) )
+			{
+				break;
+			}
+
+			swap( i, best );
+			i = best;
+		}
+	}
+}
@@ -31,7 +31,7 @@ public class AmbientShadow
 
 				float scaleVal = 1.0f - factor * dst;
 
-				tile.ambientColour.mul( scaleVal );
+				tile.level.lightMap.scaleAmbient( x, y, scaleVal );
 			}
 		}
 	}
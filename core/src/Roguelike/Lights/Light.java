@@ -1,7 +1,6 @@
 package Roguelike.Lights;
 
 import Roguelike.Global;
-import Roguelike.Pathfinding.ShadowCastCache;
 
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.math.MathUtils;
@@ -22,8 +21,6 @@ public final class Light
 
 	private float timeAccumulator;
 
-	public ShadowCastCache shadowCastCache = new ShadowCastCache();
-
 	public void update( float delta )
 	{
 		if ( flicker > 0 )
@@ -60,13 +57,21 @@ public final class Light
 	public Light copy()
 	{
 		Light l = Global.LightPool.obtain();
-		l.colour = new Color( colour );
+
+		// a pooled light owns the colour from its last copy, so it can be reused
+		if ( l.colour == null )
+		{
+			l.colour = new Color( colour );
+		}
+		else
+		{
+			l.colour.set( colour );
+		}
 		l.baseIntensity = baseIntensity;
 		l.copied = true;
 		l.flicker = flicker;
 		l.flickerPeriod = flickerPeriod;
 		l.timeAccumulator = timeAccumulator;
-		l.shadowCastCache = shadowCastCache.copy();
 
 		return l;
 	}
@@ -0,0 +1,187 @@
+package Roguelike.Lights;
+
+import Roguelike.Pathfinding.ShadowCaster;
+import Roguelike.Tiles.GameTile;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.IntMap;
+
+/**
+ * The level's light, stored as flat red, green and blue arrays indexed by x * height + y. The ambient colour is copied
+ * in at the start of each frame and lights add their falloff on top, unclamped, with the clamp applied when a colour is
+ * read. Falloff for lights sitting on a tile centre is read from a kernel precomputed per intensity.
+ */
+public final class LightMap
+{
+	// ----------------------------------------------------------------------
+	public final int width;
+	public final int height;
+
+	public final float[] red;
+	public final float[] green;
+	public final float[] blue;
+
+	private final float[] ambientRed;
+	private final float[] ambientGreen;
+	private final float[] ambientBlue;
+
+	private final IntMap<float[]> kernels = new IntMap<float[]>();
+
+	// ----------------------------------------------------------------------
+	public LightMap( int width, int height )
+	{
+		this.width = width;
+		this.height = height;
+
+		red = new float[width * height];
+		green = new float[width * height];
+		blue = new float[width * height];
+
+		ambientRed = new float[width * height];
+		ambientGreen = new float[width * height];
+		ambientBlue = new float[width * height];
+	}
+
+	// ----------------------------------------------------------------------
+	public void setAmbient( int x, int y, Color colour )
+	{
+		int index = x * height + y;
+		ambientRed[index] = colour.r;
+		ambientGreen[index] = colour.g;
+		ambientBlue[index] = colour.b;
+	}
+
+	// ----------------------------------------------------------------------
+	public void scaleAmbient( int x, int y, float scale )
+	{
+		int index = x * height + y;
+		ambientRed[index] *= scale;
+		ambientGreen[index] *= scale;
+		ambientBlue[index] *= scale;
+	}
+
+	// ----------------------------------------------------------------------
+	public void resetToAmbient()
+	{
+		System.arraycopy( ambientRed, 0, red, 0, red.length );
+		System.arraycopy( ambientGreen, 0, green, 0, green.length );
+		System.arraycopy( ambientBlue, 0, blue, 0, blue.length );
+	}
+
+	// ----------------------------------------------------------------------
+	public void add( int index, float r, float g, float b )
+	{
+		red[index] += r;
+		green[index] += g;
+		blue[index] += b;
+	}
+
+	// ----------------------------------------------------------------------
+	/**
+	 * Adds the light's falloff to every visible tile in its shadow cast.
+	 */
+	public void addLight( Light light, IntArray shadowCast, GameTile[][] grid )
+	{
+		float r = light.colour.r * light.colour.a;
+		float g = light.colour.g * light.colour.a;
+		float b = light.colour.b * light.colour.a;
+
+		int cx = (int) light.lx;
+		int cy = (int) light.ly;
+
+		if ( cx == light.lx && cy == light.ly && light.actualIntensity == light.baseIntensity )
+		{
+			int range = (int) light.baseIntensity + 1;
+			int side = range * 2 + 1;
+			float[] kernel = getKernel( light.baseIntensity );
+
+			for ( int i = 0; i < shadowCast.size; i++ )
+			{
+				int x = ShadowCaster.unpackX( shadowCast.get( i ) );
+				int y = ShadowCaster.unpackY( shadowCast.get( i ) );
+				int dx = x - cx;
+				int dy = y - cy;
+
+				if ( dx < -range || dy < -range || dx > range || dy > range || !isVisible( grid, x, y ) )
+				{
+					continue;
+				}
+
+				float dst = kernel[( dx + range ) * side + dy + range];
+				add( x * height + y, r * dst, g * dst, b * dst );
+			}
+		}
+		else
+		{
+			float intensity2 = light.actualIntensity * light.actualIntensity;
+
+			for ( int i = 0; i < shadowCast.size; i++ )
+			{
+				int x = ShadowCaster.unpackX( shadowCast.get( i ) );
+				int y = ShadowCaster.unpackY( shadowCast.get( i ) );
+
+				if ( !isVisible( grid, x, y ) )
+				{
+					continue;
+				}
+
+				float dx = light.lx - x;
+				float dy = light.ly - y;
+
+				float dst = 1 - ( dx * dx + dy * dy ) / intensity2;
+				if ( dst > 0 )
+				{
+					add( x * height + y, r * dst, g * dst, b * dst );
+				}
+			}
+		}
+	}
+
+	// ----------------------------------------------------------------------
+	public Color getColour( int x, int y, Color output )
+	{
+		int index = x * height + y;
+		output.r = Math.min( red[index], 1 );
+		output.g = Math.min( green[index], 1 );
+		output.b = Math.min( blue[index], 1 );
+		output.a = 1;
+
+		return output;
+	}
+
+	// ----------------------------------------------------------------------
+	private boolean isVisible( GameTile[][] grid, int x, int y )
+	{
+		return x >= 0 && y >= 0 && x < width && y < height && grid[x][y].visible;
+	}
+
+	// ----------------------------------------------------------------------
+	private float[] getKernel( float intensity )
+	{
+		int key = Float.floatToIntBits( intensity );
+		float[] kernel = kernels.get( key );
+
+		if ( kernel == null )
+		{
+			int range = (int) intensity + 1;
+			int side = range * 2 + 1;
+			kernel = new float[side * side];
+
+			for ( int x = 0; x < side; x++ )
+			{
+				for ( int y = 0; y < side; y++ )
+				{
+					float dx = x - range;
+					float dy = y - range;
+
+					kernel[x * side + y] = Math.max( 0, 1 - ( dx * dx + dy * dy ) / ( intensity * intensity ) );
+				}
+			}
+
+			kernels.put( key, kernel );
+		}
+
+		return kernel;
+	}
+}
@@ -0,0 +1,187 @@
+package Roguelike.Lights;
+
+import Roguelike.Pathfinding.ShadowCastCache;
+import Roguelike.Tiles.GameTile;
+import Roguelike.Tiles.Point;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.FloatArray;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.IntMap;
+
+/**
+ * Persistent per tile RGB sums of every light that does not change from frame to frame. Each light is baked in once and
+ * its contribution kept so it can be taken back out when its shadow cast changes or it goes away, instead of relighting
+ * the level every frame.
+ */
+public final class StaticLightBuffer
+{
+	// ----------------------------------------------------------------------
+	private static final class BakedLight
+	{
+		public int key;
+		public Light light;
+		public float intensity;
+		public int x;
+		public int y;
+		public int frame;
+
+		public final ShadowCastCache shadowCastCache = new ShadowCastCache();
+		public int version;
+
+		public final IntArray cells = new IntArray();
+		public final FloatArray colours = new FloatArray();
+	}
+
+	// ----------------------------------------------------------------------
+	private int width;
+	private int height;
+
+	private float[] red = new float[0];
+	private float[] green = new float[0];
+	private float[] blue = new float[0];
+
+	private final IntMap<BakedLight> lookup = new IntMap<BakedLight>();
+	private final Array<BakedLight> bakedLights = new Array<BakedLight>( false, 16 );
+	private int frame;
+
+	// ----------------------------------------------------------------------
+	public static boolean isStatic( Light light )
+	{
+		return light.flicker == 0;
+	}
+
+	// ----------------------------------------------------------------------
+	/**
+	 * Starts a frame of bake calls. Any light not baked again before {@link #end()} is removed.
+	 */
+	public void begin( int width, int height )
+	{
+		if ( width != this.width || height != this.height )
+		{
+			this.width = width;
+			this.height = height;
+
+			red = new float[width * height];
+			green = new float[width * height];
+			blue = new float[width * height];
+
+			lookup.clear();
+			bakedLights.clear();
+		}
+
+		frame++;
+	}
+
+	// ----------------------------------------------------------------------
+	/**
+	 * Keeps the light baked at (x, y). The key identifies the source the light comes from, so a different light
+	 * arriving under the same key replaces the old one.
+	 */
+	public void bake( int key, Light light, int x, int y, GameTile[][] grid )
+	{
+		BakedLight baked = lookup.get( key );
+
+		if ( baked == null )
+		{
+			baked = new BakedLight();
+			baked.key = key;
+			lookup.put( key, baked );
+			bakedLights.add( baked );
+		}
+		else if ( baked.light == light && baked.intensity == light.baseIntensity && baked.x == x && baked.y == y )
+		{
+			baked.frame = frame;
+
+			// only re-add the light if something moved in or out of its shadow cast
+			baked.shadowCastCache.getShadowCast( grid, x, y, (int) baked.intensity + 1, null );
+			if ( baked.shadowCastCache.getVersion() == baked.version ) { return; }
+		}
+
+		baked.light = light;
+		baked.intensity = light.baseIntensity;
+		baked.x = x;
+		baked.y = y;
+		baked.frame = frame;
+
+		subtract( baked );
+		add( baked, grid );
+	}
+
+	// ----------------------------------------------------------------------
+	public void end()
+	{
+		for ( int i = bakedLights.size - 1; i >= 0; i-- )
+		{
+			BakedLight baked = bakedLights.get( i );
+			if ( baked.frame != frame )
+			{
+				subtract( baked );
+				lookup.remove( baked.key );
+				bakedLights.removeIndex( i );
+			}
+		}
+	}
+
+	// ----------------------------------------------------------------------
+	public void apply( LightMap lightMap, int x, int y )
+	{
+		int index = x * height + y;
+		lightMap.add( index, red[index], green[index], blue[index] );
+	}
+
+	// ----------------------------------------------------------------------
+	private void add( BakedLight baked, GameTile[][] grid )
+	{
+		Light light = baked.light;
+
+		Array<Point> output = baked.shadowCastCache.getShadowCast( grid, baked.x, baked.y, (int) baked.intensity + 1, null );
+		baked.version = baked.shadowCastCache.getVersion();
+
+		float r = light.colour.r * light.colour.a;
+		float g = light.colour.g * light.colour.a;
+		float b = light.colour.b * light.colour.a;
+
+		for ( Point tilePos : output )
+		{
+			if ( tilePos.x < 0 || tilePos.y < 0 || tilePos.x >= width || tilePos.y >= height )
+			{
+				continue;
+			}
+
+			float dx = baked.x - tilePos.x;
+			float dy = baked.y - tilePos.y;
+
+			float dst = 1 - ( dx * dx + dy * dy ) / ( baked.intensity * baked.intensity );
+			if ( dst <= 0 )
+			{
+				continue;
+			}
+
+			int index = tilePos.x * height + tilePos.y;
+			red[index] += r * dst;
+			green[index] += g * dst;
+			blue[index] += b * dst;
+
+			baked.cells.add( index );
+			baked.colours.add( r * dst );
+			baked.colours.add( g * dst );
+			baked.colours.add( b * dst );
+		}
+	}
+
+	// ----------------------------------------------------------------------
+	private void subtract( BakedLight baked )
+	{
+		for ( int i = 0; i < baked.cells.size; i++ )
+		{
+			int index = baked.cells.get( i );
+			red[index] -= baked.colours.get( i * 3 );
+			green[index] -= baked.colours.get( i * 3 + 1 );
+			blue[index] -= baked.colours.get( i * 3 + 2 );
+		}
+
+		baked.cells.clear();
+		baked.colours.clear();
+	}
+}
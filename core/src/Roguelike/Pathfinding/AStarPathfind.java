@@ -10,7 +10,7 @@
  ******************************************************************************/
 package Roguelike.Pathfinding;
 
-import java.util.PriorityQueue;
+import java.util.Arrays;
 
 import Roguelike.Global;
 import Roguelike.Global.Passability;
@@ -19,36 +19,58 @@ import Roguelike.Util.EnumBitflag;
 
 import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.utils.Array;
-import com.badlogic.gdx.utils.BinaryHeap;
 
+/**
+ * A* over flat per-cell arrays. Cells are only valid when their stamp matches the current generation, so starting a new
+ * search is O(1) and an instance can be reused for any number of queries without allocating.
+ */
 public class AStarPathfind
 {
 	private static final int[][] NormalOffsets = { { -1, 0 }, { 0, -1 }, { +1, 0 }, { 0, +1 } };
 
 	private static final int[][] DiagonalOffsets = { { -1, -1 }, { -1, +1 }, { +1, -1 }, { +1, +1 } };
 
-	private final PathfindingTile[][] grid;
-	private final int width;
-	private final int height;
-	private final boolean canMoveDiagonal;
-	private final int actorSize;
-	private final boolean findOptimal;
-	private final EnumBitflag<Passability> travelType;
-	private final Object self;
-
-	private final int startx;
-	private final int starty;
-	private final int endx;
-	private final int endy;
+	// index in the open heap, or one of these once the cell has left it
+	private static final int POPPED = -1;
+	private static final int PROCESSED = -2;
+
+	private PathfindingTile[][] grid;
+	private int width;
+	private int height;
+	private boolean canMoveDiagonal;
+	private int actorSize;
+	private boolean findOptimal;
+	private EnumBitflag<Passability> travelType;
+	private Object self;
+
+	private int startx;
+	private int starty;
+	private int endx;
+	private int endy;
 	private int currentx;
 	private int currenty;
-	private Node[][] nodes;
+
+	private int[] cost = new int[0];
+	private int[] parent = new int[0];
+	private int[] heapIndex = new int[0];
+	private int[] stamp = new int[0];
+	private int generation = 0;
+
+	private int[] openList = new int[64];
+	private int openSize = 0;
 
 	public boolean debug = false;
 
-	private BinaryHeap<Node> openList = new BinaryHeap<Node>();
+	public AStarPathfind()
+	{
+	}
 
 	public AStarPathfind( PathfindingTile[][] grid, int startx, int starty, int endx, int endy, boolean canMoveDiagonal, boolean findOptimal, int actorSize, EnumBitflag<Passability> travelType, Object self )
+	{
+		setup( grid, startx, starty, endx, endy, canMoveDiagonal, findOptimal, actorSize, travelType, self );
+	}
+
+	private void setup( PathfindingTile[][] grid, int startx, int starty, int endx, int endy, boolean canMoveDiagonal, boolean findOptimal, int actorSize, EnumBitflag<Passability> travelType, Object self )
 	{
 		this.grid = grid;
 		this.width = grid.length;
@@ -69,29 +91,51 @@ public class AStarPathfind
 		this.currenty = this.starty;
 	}
 
+	private void reset()
+	{
+		int cells = width * height;
+		if ( stamp.length < cells )
+		{
+			cost = new int[cells];
+			parent = new int[cells];
+			heapIndex = new int[cells];
+			stamp = new int[cells];
+			generation = 0;
+		}
+
+		generation++;
+		if ( generation == Integer.MAX_VALUE )
+		{
+			Arrays.fill( stamp, 0 );
+			generation = 1;
+		}
+
+		openSize = 0;
+	}
+
 	private void path()
 	{
-		Node current = openList.pop();
+		int current = pop();
 
-		currentx = current.x;
-		currenty = current.y;
+		currentx = current / height;
+		currenty = current % height;
 
 		if ( isEnd( currentx, currenty ) ) { return; }
 
 		for ( int[] offset : NormalOffsets )
 		{
-			addNodeToOpenList( current.x + offset[0], current.y + offset[1], current );
+			addNodeToOpenList( currentx + offset[0], currenty + offset[1], current );
 		}
 
 		if ( canMoveDiagonal )
 		{
 			for ( int[] offset : DiagonalOffsets )
 			{
-				addNodeToOpenList( current.x + offset[0], current.y + offset[1], current );
+				addNodeToOpenList( currentx + offset[0], currenty + offset[1], current );
 			}
 		}
 
-		current.processed = true;
+		heapIndex[current] = PROCESSED;
 	}
 
 	private boolean isStart( int x, int y )
@@ -104,7 +148,7 @@ public class AStarPathfind
 		return x == endx && y == endy;
 	}
 
-	private void addNodeToOpenList( int x, int y, Node parent )
+	private void addNodeToOpenList( int x, int y, int parentNode )
 	{
 		if ( !isStart( x, y ) && !isEnd( x, y ) )
 		{
@@ -118,45 +162,43 @@ public class AStarPathfind
 		}
 
 		int heuristic = Math.abs( x - endx ) + Math.abs( y - endy );
-		int cost = heuristic + ( parent != null ? parent.cost : 0 );
+		int newCost = heuristic + ( parentNode >= 0 ? cost[parentNode] : 0 );
 
-		cost += grid[x][y].getInfluence( travelType, self );
+		newCost += grid[x][y].getInfluence( travelType, self );
 
 		// 3 possible conditions
 
-		Node node = nodes[x][y];
+		int node = x * height + y;
 
 		// not added to open list yet, so add it
-		if ( node == null )
+		if ( stamp[node] != generation )
 		{
-			node = new Node( x, y );
-			node.cost = cost;
-			node.parent = parent;
-			openList.add( node, node.cost );
-
-			nodes[x][y] = node;
+			stamp[node] = generation;
+			cost[node] = newCost;
+			parent[node] = parentNode;
+			push( node );
 		}
 
 		// not yet processed, if lower cost update the values and reposition in
 		// list
-		else if ( !node.processed )
+		else if ( heapIndex[node] >= 0 )
 		{
-			if ( cost < node.cost )
+			if ( newCost < cost[node] )
 			{
-				node.cost = cost;
-				node.parent = parent;
+				cost[node] = newCost;
+				parent[node] = parentNode;
 
-				openList.setValue( node, node.cost );
+				up( heapIndex[node] );
 			}
 		}
 
 		// processed, if lower cost then update parent and cost
 		else
 		{
-			if ( cost < node.cost )
+			if ( newCost < cost[node] )
 			{
-				node.cost = cost;
-				node.parent = parent;
+				cost[node] = newCost;
+				parent[node] = parentNode;
 			}
 		}
 	}
@@ -169,62 +211,161 @@ public class AStarPathfind
 
 	public Array<Point> getPath()
 	{
-		nodes = new Node[width][height];
+		Array<Point> path = new Array<Point>();
+
+		return findPath( path ) ? path : null;
+	}
+
+	/**
+	 * Appends the path to output, which should be empty. The points come from Global.PointPool and belong to the caller.
+	 * Returns false and leaves output untouched if there is no path.
+	 */
+	public boolean getPath( PathfindingTile[][] grid, int startx, int starty, int endx, int endy, boolean canMoveDiagonal, boolean findOptimal, int actorSize, EnumBitflag<Passability> travelType, Object self, Array<Point> output )
+	{
+		setup( grid, startx, starty, endx, endy, canMoveDiagonal, findOptimal, actorSize, travelType, self );
+
+		return findPath( output );
+	}
+
+	private boolean findPath( Array<Point> output )
+	{
+		reset();
 
-		addNodeToOpenList( startx, starty, null );
+		addNodeToOpenList( startx, starty, -1 );
 
-		while ( ( findOptimal || !isEnd( currentx, currenty ) ) && openList.size > 0 )
+		while ( ( findOptimal || !isEnd( currentx, currenty ) ) && openSize > 0 )
 		{
 			path();
 		}
 
-		if ( nodes[endx][endy] == null )
+		int end = endx * height + endy;
+
+		if ( stamp[end] != generation )
 		{
-			return null;
+			return false;
 		}
 		else
 		{
-			Array<Point> path = new Array<Point>();
+			int first = output.size;
 
-			path.add( Global.PointPool.obtain().set( endx, endy ) );
+			output.add( Global.PointPool.obtain().set( endx, endy ) );
 
-			Node node = nodes[endx][endy];
+			int node = end;
 
-			while ( node != null )
+			while ( node >= 0 )
 			{
-				path.add( Global.PointPool.obtain().set( node.x, node.y ) );
+				output.add( Global.PointPool.obtain().set( node / height, node % height ) );
 
-				node = node.parent;
+				node = parent[node];
 			}
 
-			path.reverse();
+			for ( int i = first, j = output.size - 1; i < j; i++, j-- )
+			{
+				output.swap( i, j );
+			}
 
-			return path;
+			return true;
 		}
 	}
 
-	private class Node extends BinaryHeap.Node
+	// ----------------------------------------------------------------------
+	// Binary min heap of cell indices ordered by cost, laid out the same as the gdx BinaryHeap it replaces
+	private void push( int node )
 	{
-		public int x;
-		public int y;
-		public int cost;
-		public Node parent;
+		if ( openSize == openList.length )
+		{
+			openList = Arrays.copyOf( openList, openSize * 2 );
+		}
 
-		public boolean processed = false;
+		heapIndex[node] = openSize;
+		openList[openSize] = node;
+		up( openSize++ );
+	}
 
-		public Node( int x, int y )
-		{
-			super(0);
+	private int pop()
+	{
+		int removed = openList[0];
 
-			this.x = x;
-			this.y = y;
+		openList[0] = openList[--openSize];
+		if ( openSize > 0 )
+		{
+			down( 0 );
 		}
 
-		@Override
-		public String toString()
+		heapIndex[removed] = POPPED;
+		return removed;
+	}
+
+	private void up( int index )
+	{
+		int node = openList[index];
+		int value = cost[node];
+
+		while ( index > 0 )
 		{
-			return "" + cost;
+			int parentIndex = ( index - 1 ) >> 1;
+			int parentNode = openList[parentIndex];
+
+			if ( value < cost[parentNode] )
+			{
+				openList[index] = parentNode;
+				heapIndex[parentNode] = index;
+				index = parentIndex;
+			}
+			else
+			{
+				break;
+			}
 		}
+
+		openList[index] = node;
+		heapIndex[node] = index;
 	}
 
+	private void down( int index )
+	{
+		int node = openList[index];
+		int value = cost[node];
+
+		while ( true )
+		{
+			int leftIndex = 1 + ( index << 1 );
+			if ( leftIndex >= openSize )
+			{
+				break;
+			}
+
+			int rightIndex = leftIndex + 1;
+			int leftNode = openList[leftIndex];
+			int leftValue = cost[leftNode];
+			int rightNode = rightIndex < openSize ? openList[rightIndex] : -1;
+			int rightValue = rightNode >= 0 ? cost[rightNode] : Integer.MAX_VALUE;
+
+			if ( leftValue < rightValue )
+			{
+				if ( leftValue >= value )
+				{
+					break;
+				}
+
+				openList[index] = leftNode;
+				heapIndex[leftNode] = index;
+				index = leftIndex;
+			}
+			else
+			{
+				if ( rightValue >= value )
+				{
+					break;
+				}
+
+				openList[index] = rightNode;
+				heapIndex[rightNode] = index;
+				index = rightIndex;
+			}
+		}
+
+		openList[index] = node;
+		heapIndex[node] = index;
+	}
 }
@@ -0,0 +1,299 @@
+package Roguelike.Pathfinding;
+
+import java.util.Arrays;
+
+import Roguelike.Global;
+import Roguelike.Global.Direction;
+import Roguelike.Global.Passability;
+import Roguelike.Tiles.Point;
+import Roguelike.Util.EnumBitflag;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntArray;
+
+/**
+ * Step distance from every tile to the nearest of a set of goal tiles, filled by a breadth first flood out from the goals.
+ * Entities are ignored when flooding as they move every turn, so callers check the real passability of the step they take.
+ * Passability changes are applied lazily: newly opened tiles are relaxed into the existing map, anything that blocks a
+ * reached tile forces a full rebuild.
+ */
+public final class DijkstraMap
+{
+	// ----------------------------------------------------------------------
+	public static final int UNREACHABLE = Integer.MAX_VALUE;
+
+	private static final byte UNKNOWN = 0;
+	private static final byte REACHED = 1;
+	private static final byte BLOCKED = 2;
+
+	// ----------------------------------------------------------------------
+	private PathfindingTile[][] grid;
+	private int width;
+	private int height;
+	private final EnumBitflag<Passability> travelType = new EnumBitflag<Passability>();
+
+	private int[] goals = new int[8];
+	private int numGoals;
+
+	private int[] distance = new int[0];
+	private byte[] state = new byte[0];
+	private int[] queue = new int[0];
+
+	private final IntArray changedTiles = new IntArray();
+	private boolean needsRebuild;
+
+	public int turn = -1;
+
+	// ----------------------------------------------------------------------
+	public void set( PathfindingTile[][] grid, Array<Point> goalPoints, EnumBitflag<Passability> travelType, int turn )
+	{
+		this.grid = grid;
+		this.width = grid.length;
+		this.height = grid[0].length;
+		this.turn = turn;
+
+		this.travelType.clear();
+		this.travelType.setAll( travelType );
+		this.travelType.setBit( Passability.ENTITY );
+
+		if ( goals.length < goalPoints.size )
+		{
+			goals = new int[goalPoints.size];
+		}
+
+		numGoals = 0;
+		for ( Point p : goalPoints )
+		{
+			if ( p.x >= 0 && p.y >= 0 && p.x < width && p.y < height )
+			{
+				goals[numGoals++] = p.x * height + p.y;
+			}
+		}
+
+		if ( distance.length < width * height )
+		{
+			distance = new int[width * height];
+			state = new byte[width * height];
+			queue = new int[width * height];
+		}
+
+		rebuild();
+	}
+
+	// ----------------------------------------------------------------------
+	public boolean matches( PathfindingTile[][] grid, Array<Point> goalPoints, EnumBitflag<Passability> travelType, int turn )
+	{
+		if ( this.grid != grid || this.turn != turn ) { return false; }
+		if ( this.travelType.getBitFlag() != ( travelType.getBitFlag() | ( 1 << ( Passability.ENTITY.ordinal() + 1 ) ) ) ) { return false; }
+
+		int count = 0;
+		for ( Point p : goalPoints )
+		{
+			if ( p.x >= 0 && p.y >= 0 && p.x < width && p.y < height )
+			{
+				if ( count >= numGoals || goals[count] != p.x * height + p.y ) { return false; }
+				count++;
+			}
+		}
+
+		return count == numGoals;
+	}
+
+	// ----------------------------------------------------------------------
+	public void tileChanged( int x, int y )
+	{
+		if ( needsRebuild ) { return; }
+
+		int tile = x * height + y;
+		if ( state[tile] != UNKNOWN )
+		{
+			changedTiles.add( tile );
+		}
+	}
+
+	// ----------------------------------------------------------------------
+	public int getDistance( int x, int y )
+	{
+		applyChanges();
+
+		if ( x < 0 || y < 0 || x >= width || y >= height ) { return UNREACHABLE; }
+
+		return distance[x * height + y];
+	}
+
+	// ----------------------------------------------------------------------
+	/**
+	 * The direction of the passable neighbour closest to the goals, or null if no neighbour gets any closer.
+	 */
+	public Direction getBestStep( int x, int y, EnumBitflag<Passability> actorTravelType, Object self )
+	{
+		int current = getDistance( x, y );
+		if ( current == UNREACHABLE ) { return null; }
+
+		Direction best = null;
+		int bestDist = current;
+
+		for ( Direction dir : Direction.values() )
+		{
+			if ( dir == Direction.CENTER || !( Global.CanMoveDiagonal || dir.isCardinal() ) )
+			{
+				continue;
+			}
+
+			int nx = x + dir.getX();
+			int ny = y + dir.getY();
+			int dist = getDistance( nx, ny );
+
+			if ( dist < bestDist && grid[nx][ny] != null && grid[nx][ny].getPassable( actorTravelType, self ) )
+			{
+				bestDist = dist;
+				best = dir;
+			}
+		}
+
+		return best;
+	}
+
+	// ----------------------------------------------------------------------
+	private void applyChanges()
+	{
+		if ( changedTiles.size == 0 && !needsRebuild ) { return; }
+
+		if ( !needsRebuild )
+		{
+			int head = 0;
+			int tail = 0;
+
+			for ( int i = 0; i < changedTiles.size; i++ )
+			{
+				int tile = changedTiles.get( i );
+				boolean passable = isPassable( tile );
+
+				if ( state[tile] == REACHED && !passable && distance[tile] > 0 )
+				{
+					// a reached tile closing can lengthen any route through it
+					needsRebuild = true;
+					break;
+				}
+				else if ( state[tile] == BLOCKED && passable )
+				{
+					int best = UNREACHABLE;
+					for ( Direction dir : Direction.values() )
+					{
+						int n = neighbour( tile, dir );
+						if ( n >= 0 && state[n] == REACHED && distance[n] + 1 < best )
+						{
+							best = distance[n] + 1;
+						}
+					}
+
+					if ( best != UNREACHABLE )
+					{
+						state[tile] = REACHED;
+						distance[tile] = best;
+						queue[tail++] = tile;
+					}
+					else
+					{
+						state[tile] = UNKNOWN;
+					}
+				}
+			}
+
+			if ( !needsRebuild )
+			{
+				flood( head, tail );
+			}
+		}
+
+		changedTiles.clear();
+
+		if ( needsRebuild )
+		{
+			rebuild();
+		}
+	}
+
+	// ----------------------------------------------------------------------
+	private void rebuild()
+	{
+		needsRebuild = false;
+		changedTiles.clear();
+
+		int cells = width * height;
+		Arrays.fill( distance, 0, cells, UNREACHABLE );
+		Arrays.fill( state, 0, cells, UNKNOWN );
+
+		int tail = 0;
+		for ( int i = 0; i < numGoals; i++ )
+		{
+			int goal = goals[i];
+			if ( state[goal] != REACHED )
+			{
+				state[goal] = REACHED;
+				distance[goal] = 0;
+				queue[tail++] = goal;
+			}
+		}
+
+		flood( 0, tail );
+	}
+
+	// ----------------------------------------------------------------------
+	private void flood( int head, int tail )
+	{
+		int cells = width * height;
+
+		while ( head != tail )
+		{
+			int tile = queue[head];
+			head = ( head + 1 ) % cells;
+
+			int nextDist = distance[tile] + 1;
+
+			for ( Direction dir : Direction.values() )
+			{
+				int n = neighbour( tile, dir );
+				if ( n < 0 || distance[n] <= nextDist ) { continue; }
+
+				if ( state[n] == BLOCKED || ( state[n] == UNKNOWN && !isPassable( n ) ) )
+				{
+					state[n] = BLOCKED;
+					continue;
+				}
+
+				state[n] = REACHED;
+				distance[n] = nextDist;
+				queue[tail] = n;
+				tail = ( tail + 1 ) % cells;
+
+				if ( tail == head )
+				{
+					// only possible while relaxing changes, where tiles can be queued more than once
+					needsRebuild = true;
+					return;
+				}
+			}
+		}
+	}
+
+	// ----------------------------------------------------------------------
+	private int neighbour( int tile, Direction dir )
+	{
+		if ( dir == Direction.CENTER || !( Global.CanMoveDiagonal || dir.isCardinal() ) ) { return -1; }
+
+		int x = tile / height + dir.getX();
+		int y = tile % height + dir.getY();
+
+		if ( x < 0 || y < 0 || x >= width || y >= height ) { return -1; }
+
+		return x * height + y;
+	}
+
+	// ----------------------------------------------------------------------
+	private boolean isPassable( int tile )
+	{
+		PathfindingTile t = grid[tile / height][tile % height];
+		return t != null && t.getPassable( travelType, null );
+	}
+}
@@ -0,0 +1,176 @@
+package Roguelike.Pathfinding;
+
+import Roguelike.Global.Passability;
+import Roguelike.Util.EnumBitflag;
+import Roguelike.Util.WorkerPool;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.IntMap;
+
+/**
+ * Field of view results shared between everything casting from the same origin with the same radius and passability,
+ * so co-located lights and viewers only pay for one shadow cast. Results are packed as by {@link ShadowCaster#pack(int, int)}
+ * and are only valid until the cache is next cleared, which the level does every frame and whenever passability changes.
+ * Callers must copy anything they need to keep. Self is not part of the key, so casts ignore entity ownership.
+ */
+public final class FOVCache
+{
+	// ----------------------------------------------------------------------
+	private static final class Result
+	{
+		public int x;
+		public int y;
+		public int range;
+		public int travelType;
+		public boolean allowOutOfBounds;
+		public EnumBitflag<Passability> travelTypeFlags;
+
+		public Result next;
+
+		public final IntArray cells = new IntArray();
+	}
+
+	// ----------------------------------------------------------------------
+	private final IntMap<Result> lookup = new IntMap<Result>();
+	private final Array<Result> results = new Array<Result>( false, 16 );
+	private final Array<Result> freeResults = new Array<Result>( false, 16 );
+
+	// ----------------------------------------------------------------------
+	private PathfindingTile[][] prefetchGrid;
+	private final Array<Result> pendingResults = new Array<Result>( false, 16 );
+	private final Array<PrefetchJob> prefetchJobs = new Array<PrefetchJob>( false, 16 );
+	private final Array<PrefetchJob> activeJobs = new Array<PrefetchJob>( false, 16 );
+
+	// ----------------------------------------------------------------------
+	public void clear()
+	{
+		if ( results.size == 0 ) { return; }
+
+		freeResults.addAll( results );
+		results.clear();
+		lookup.clear();
+	}
+
+	// ----------------------------------------------------------------------
+	public IntArray getShadowCast( PathfindingTile[][] grid, int x, int y, int range, EnumBitflag<Passability> travelType, boolean allowOutOfBounds )
+	{
+		Result result = find( x, y, range, travelType, allowOutOfBounds );
+		if ( result != null ) { return result.cells; }
+
+		result = add( x, y, range, travelType, allowOutOfBounds );
+		ShadowCaster.get().computeFOV( grid, x, y, range, travelType, null, allowOutOfBounds, result.cells );
+
+		return result.cells;
+	}
+
+	// ----------------------------------------------------------------------
+	/**
+	 * Starts collecting casts to compute together on the worker pool in endPrefetch. The grid must not change until
+	 * endPrefetch returns.
+	 */
+	public void beginPrefetch( PathfindingTile[][] grid )
+	{
+		prefetchGrid = grid;
+		pendingResults.clear();
+	}
+
+	// ----------------------------------------------------------------------
+	public void prefetch( int x, int y, int range, EnumBitflag<Passability> travelType, boolean allowOutOfBounds )
+	{
+		if ( find( x, y, range, travelType, allowOutOfBounds ) != null ) { return; }
+
+		pendingResults.add( add( x, y, range, travelType, allowOutOfBounds ) );
+	}
+
+	// ----------------------------------------------------------------------
+	/**
+	 * Computes every cast collected since beginPrefetch, split evenly across the worker pool. Each cast is read only
+	 * against the grid and writes only to its own result, so the lookup itself never leaves the calling thread.
+	 */
+	public void endPrefetch()
+	{
+		int numJobs = Math.min( WorkerPool.NumThreads, pendingResults.size );
+
+		while ( prefetchJobs.size < numJobs )
+		{
+			prefetchJobs.add( new PrefetchJob() );
+		}
+
+		activeJobs.clear();
+		for ( int i = 0; i < numJobs; i++ )
+		{
+			PrefetchJob job = prefetchJobs.get( i );
+			job.set( i, numJobs );
+			activeJobs.add( job );
+		}
+
+		WorkerPool.runAll( activeJobs );
+
+		pendingResults.clear();
+		prefetchGrid = null;
+	}
+
+	// ----------------------------------------------------------------------
+	private Result find( int x, int y, int range, EnumBitflag<Passability> travelType, boolean allowOutOfBounds )
+	{
+		for ( Result result = lookup.get( hash( x, y, range, travelType, allowOutOfBounds ) ); result != null; result = result.next )
+		{
+			if ( result.x == x && result.y == y && result.range == range && result.travelType == travelType.getBitFlag() && result.allowOutOfBounds == allowOutOfBounds ) { return result; }
+		}
+
+		return null;
+	}
+
+	// ----------------------------------------------------------------------
+	private Result add( int x, int y, int range, EnumBitflag<Passability> travelType, boolean allowOutOfBounds )
+	{
+		int hash = hash( x, y, range, travelType, allowOutOfBounds );
+
+		Result result = freeResults.size > 0 ? freeResults.pop() : new Result();
+		result.x = x;
+		result.y = y;
+		result.range = range;
+		result.travelType = travelType.getBitFlag();
+		result.travelTypeFlags = travelType;
+		result.allowOutOfBounds = allowOutOfBounds;
+		result.next = lookup.get( hash );
+		result.cells.clear();
+
+		lookup.put( hash, result );
+		results.add( result );
+
+		return result;
+	}
+
+	// ----------------------------------------------------------------------
+	private static int hash( int x, int y, int range, EnumBitflag<Passability> travelType, boolean allowOutOfBounds )
+	{
+		return ( ( x * 31 + y ) * 31 + range ) * 31 + travelType.getBitFlag() + ( allowOutOfBounds ? 1 : 0 );
+	}
+
+	// ----------------------------------------------------------------------
+	private final class PrefetchJob implements Runnable
+	{
+		private int start;
+		private int stride;
+
+		public void set( int start, int stride )
+		{
+			this.start = start;
+			this.stride = stride;
+		}
+
+		@Override
+		public void run()
+		{
+			ShadowCaster caster = ShadowCaster.get();
+
+			for ( int i = start; i < pendingResults.size; i += stride )
+			{
+				Result result = pendingResults.get( i );
+				caster.computeFOV( prefetchGrid, result.x, result.y, result.range, result.travelTypeFlags, null, result.allowOutOfBounds, result.cells );
+			}
+		}
+	}
+}
@@ -0,0 +1,145 @@
+package Roguelike.Pathfinding;
+
+import java.util.Arrays;
+
+import Roguelike.Global.Passability;
+import Roguelike.Util.EnumBitflag;
+
+/**
+ * Bounded breadth first flood from a single tile, giving the step distance to every tile reached in one pass. Blocked
+ * tiles are reached but not expanded, matching an A* search that never checks the end tile. Storage is stamped with a
+ * generation so an instance can be reused without clearing or allocating.
+ */
+public final class FloodFill
+{
+	// ----------------------------------------------------------------------
+	public static final int UNREACHABLE = Integer.MAX_VALUE;
+
+	// ----------------------------------------------------------------------
+	private int width;
+	private int height;
+
+	private int[] distance = new int[0];
+	private int[] stamp = new int[0];
+	private int generation = 0;
+
+	private int[] reached = new int[64];
+	private int numReached;
+
+	// ----------------------------------------------------------------------
+	/**
+	 * Floods out from (startx, starty) up to maxDist steps. Tiles passable for travelType are expanded, impassable ones
+	 * are recorded but go no further.
+	 */
+	public void flood( PathfindingTile[][] grid, int startx, int starty, int maxDist, boolean canMoveDiagonal, EnumBitflag<Passability> travelType, Object self )
+	{
+		width = grid.length;
+		height = grid[0].length;
+
+		int cells = width * height;
+		if ( stamp.length < cells )
+		{
+			distance = new int[cells];
+			stamp = new int[cells];
+			generation = 0;
+		}
+
+		generation++;
+		if ( generation == Integer.MAX_VALUE )
+		{
+			Arrays.fill( stamp, 0 );
+			generation = 1;
+		}
+
+		numReached = 0;
+
+		if ( startx < 0 || starty < 0 || startx >= width || starty >= height || maxDist < 0 ) { return; }
+
+		int start = startx * height + starty;
+		stamp[start] = generation;
+		distance[start] = 0;
+		addReached( start );
+
+		// the reached list doubles as the queue, only passable tiles are expanded
+		int head = 0;
+		while ( head < numReached )
+		{
+			int tile = reached[head++];
+			int nextDist = distance[tile] + 1;
+
+			if ( nextDist > maxDist ) { break; }
+
+			int x = tile / height;
+			int y = tile % height;
+
+			if ( tile != start && !grid[x][y].getPassable( travelType, self ) )
+			{
+				continue;
+			}
+
+			visit( grid, x - 1, y, nextDist );
+			visit( grid, x, y - 1, nextDist );
+			visit( grid, x + 1, y, nextDist );
+			visit( grid, x, y + 1, nextDist );
+
+			if ( canMoveDiagonal )
+			{
+				visit( grid, x - 1, y - 1, nextDist );
+				visit( grid, x - 1, y + 1, nextDist );
+				visit( grid, x + 1, y - 1, nextDist );
+				visit( grid, x + 1, y + 1, nextDist );
+			}
+		}
+	}
+
+	// ----------------------------------------------------------------------
+	public int getDistance( int x, int y )
+	{
+		if ( x < 0 || y < 0 || x >= width || y >= height ) { return UNREACHABLE; }
+
+		int tile = x * height + y;
+		return stamp[tile] == generation ? distance[tile] : UNREACHABLE;
+	}
+
+	// ----------------------------------------------------------------------
+	public int getNumReached()
+	{
+		return numReached;
+	}
+
+	// ----------------------------------------------------------------------
+	public int getReachedX( int i )
+	{
+		return reached[i] / height;
+	}
+
+	// ----------------------------------------------------------------------
+	public int getReachedY( int i )
+	{
+		return reached[i] % height;
+	}
+
+	// ----------------------------------------------------------------------
+	private void visit( PathfindingTile[][] grid, int x, int y, int dist )
+	{
+		if ( x < 0 || y < 0 || x >= width || y >= height || grid[x][y] == null ) { return; }
+
+		int tile = x * height + y;
+		if ( stamp[tile] == generation ) { return; }
+
+		stamp[tile] = generation;
+		distance[tile] = dist;
+		addReached( tile );
+	}
+
+	// ----------------------------------------------------------------------
+	private void addReached( int tile )
+	{
+		if ( numReached == reached.length )
+		{
+			reached = Arrays.copyOf( reached, reached.length * 2 );
+		}
+
+		reached[numReached++] = tile;
+	}
+}
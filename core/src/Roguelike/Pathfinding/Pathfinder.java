@@ -32,11 +32,19 @@ public class Pathfinder
 
 	public Array<Point> getPath( EnumBitflag<Passability> travelType )
 	{
-		AStarPathfind astar = new AStarPathfind( Grid, startx, starty, endx, endy, canMoveDiagonal, false, size, travelType, self );
-		Array<Point> path = astar.getPath();
+		Array<Point> path = new Array<Point>();
+		getPath( travelType, new AStarPathfind(), path );
 
-		if ( path == null )
+		return path;
+	}
+
+	public void getPath( EnumBitflag<Passability> travelType, AStarPathfind astar, Array<Point> output )
+	{
+		boolean found = astar.getPath( Grid, startx, starty, endx, endy, canMoveDiagonal, false, size, travelType, self, output );
+
+		if ( !found )
 		{
+			Array<Point> path;
 			if ( Global.CanMoveDiagonal )
 			{
 				path = BresenhamLine.line( startx, starty, endx, endy, Grid, true, Integer.MAX_VALUE, travelType, self );
@@ -45,9 +53,9 @@ public class Pathfinder
 			{
 				path = BresenhamLine.lineNoDiag( startx, starty, endx, endy, Grid, true, Integer.MAX_VALUE, travelType, self );
 			}
-		}
 
-		return path;
+			output.addAll( path );
+		}
 	}
 
 	public static class PathfinderTest
@@ -2,11 +2,14 @@ package Roguelike.Pathfinding;
 
 import Roguelike.Global;
 import Roguelike.Global.Passability;
+import Roguelike.Levels.Level;
 import Roguelike.Tiles.GameTile;
 import Roguelike.Tiles.Point;
 import Roguelike.Util.EnumBitflag;
+import Roguelike.Util.TileBitset;
 
 import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntArray;
 
 public final class ShadowCastCache
 {
@@ -26,6 +29,7 @@ public final class ShadowCastCache
 	{
 		ShadowCastCache cache = new ShadowCastCache( LightPassability );
 		cache.lastrange = lastrange;
+		cache.version = version;
 		cache.lastx = lastx;
 		cache.lasty = lasty;
 
@@ -39,72 +43,111 @@ public final class ShadowCastCache
 			cache.shadowCastOutput.add( p.copy() );
 		}
 
+		cache.visibleTiles.set( visibleTiles );
+
 		return cache;
 	}
 
 	private int lastrange;
+	private int version;
 	private int lastx;
 	private int lasty;
 	private Array<Point> opaqueTiles = new Array<Point>();
 	private Array<Point> clearTiles = new Array<Point>();
 	private Array<Point> shadowCastOutput = new Array<Point>();
+	private final IntArray packedOutput = new IntArray();
+	private final TileBitset visibleTiles = new TileBitset();
 
 	public Array<Point> getCurrentShadowCast()
 	{
 		return shadowCastOutput;
 	}
 
+	/**
+	 * The tiles of the current shadow cast as a level sized bitset. Tiles outside the level are never set.
+	 */
+	public TileBitset getVisibleTiles()
+	{
+		return visibleTiles;
+	}
+
+	public boolean isVisible( int x, int y )
+	{
+		return visibleTiles.get( x, y );
+	}
+
+	/**
+	 * Incremented every time the shadow cast is recalculated.
+	 */
+	public int getVersion()
+	{
+		return version;
+	}
+
 	public Array<Point> getShadowCast( GameTile[][] grid, int x, int y, int range, Object caster )
 	{
 		return getShadowCast( grid, x, y, range, caster, false );
 	}
 
-	public Array<Point> getShadowCast( GameTile[][] grid, int x, int y, int range, Object caster, boolean allowOutOfBounds )
+	/**
+	 * Whether getShadowCast with these arguments would have to recalculate.
+	 */
+	public boolean isStale( GameTile[][] grid, int x, int y, int range, Object caster )
 	{
-		boolean recalculate = false;
+		if ( x != lastx || y != lasty || range != lastrange ) { return true; }
 
-		if ( x != lastx || y != lasty )
+		for ( Point pos : opaqueTiles )
 		{
-			recalculate = true;
-		}
-		else if ( range != lastrange )
-		{
-			recalculate = true;
-		}
-		else
-		{
-			for ( Point pos : opaqueTiles )
+			GameTile tile = grid[pos.x][pos.y];
+			if ( tile.getPassable( LightPassability, caster ) )
 			{
-				GameTile tile = grid[pos.x][pos.y];
-				if ( tile.getPassable( LightPassability, caster ) )
-				{
-					recalculate = true; // something has moved
-					break;
-				}
+				return true; // something has moved
 			}
+		}
 
-			if ( !recalculate )
+		for ( Point pos : clearTiles )
+		{
+			GameTile tile = grid[pos.x][pos.y];
+			if ( !tile.getPassable( LightPassability, caster ) )
 			{
-				for ( Point pos : clearTiles )
-				{
-					GameTile tile = grid[pos.x][pos.y];
-					if ( !tile.getPassable( LightPassability, caster ) )
-					{
-						recalculate = true; // something has moved
-						break;
-					}
-				}
+				return true; // something has moved
 			}
 		}
 
-		if ( recalculate )
+		return false;
+	}
+
+	public Array<Point> getShadowCast( GameTile[][] grid, int x, int y, int range, Object caster, boolean allowOutOfBounds )
+	{
+		if ( isStale( grid, x, y, range, caster ) )
 		{
 			Global.PointPool.freeAll( shadowCastOutput );
 			shadowCastOutput.clear();
 
-			ShadowCaster shadow = new ShadowCaster( grid, range );
-			shadow.allowOutOfBounds = allowOutOfBounds;
-			shadow.ComputeFOV( x, y, shadowCastOutput );
+			// share the cast with anything else looking from here this frame
+			IntArray cells = packedOutput;
+			Level level = grid[0][0].level;
+			if ( level != null )
+			{
+				cells = level.fovCache.getShadowCast( grid, x, y, range, ShadowCaster.ShadowPassability, allowOutOfBounds );
+			}
+			else
+			{
+				packedOutput.clear();
+				ShadowCaster.get().computeFOV( grid, x, y, range, ShadowCaster.ShadowPassability, null, allowOutOfBounds, packedOutput );
+			}
+
+			visibleTiles.setSize( grid.length, grid[0].length );
+
+			for ( int i = 0; i < cells.size; i++ )
+			{
+				int packed = cells.get( i );
+				int px = ShadowCaster.unpackX( packed );
+				int py = ShadowCaster.unpackY( packed );
+
+				shadowCastOutput.add( Global.PointPool.obtain().set( px, py ) );
+				visibleTiles.set( px, py );
+			}
 
 			// build list of clear/opaque
 			opaqueTiles.clear();
@@ -130,6 +173,7 @@ public final class ShadowCastCache
 			lastx = x;
 			lasty = y;
 			lastrange = range;
+			version++;
 		}
 
 		return shadowCastOutput;
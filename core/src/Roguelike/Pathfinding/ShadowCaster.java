@@ -10,8 +10,7 @@
  ******************************************************************************/
 package Roguelike.Pathfinding;
 
-import java.util.ArrayDeque;
-import java.util.HashSet;
+import java.util.Arrays;
 
 import Roguelike.Global;
 import Roguelike.Global.Passability;
@@ -20,31 +19,57 @@ import Roguelike.Util.EnumBitflag;
 
 import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.utils.Array;
-import com.badlogic.gdx.utils.IntSet;
-import com.badlogic.gdx.utils.ObjectSet;
+import com.badlogic.gdx.utils.IntArray;
 
+/**
+ * Recursive shadowcasting field of view. The column work queue is a ring buffer of ints and visible cells are written as
+ * packed coordinates (see {@link #pack(int, int)}), so a reused instance computes any number of fields of view without
+ * allocating. Instances are not thread safe, use {@link #get()} for the one owned by the current thread.
+ */
 public class ShadowCaster
 {
-	private final EnumBitflag<Passability> ShadowPassability = new EnumBitflag<Passability>( Passability.LIGHT, Passability.ENTITY );
+	public static final EnumBitflag<Passability> ShadowPassability = new EnumBitflag<Passability>( Passability.LIGHT, Passability.ENTITY );
 
-	private final IntSet tileLookup = new IntSet();
+	private static final ThreadLocal<ShadowCaster> threadInstance = new ThreadLocal<ShadowCaster>()
+	{
+		@Override
+		protected ShadowCaster initialValue()
+		{
+			return new ShadowCaster();
+		}
+	};
+
+	// column entries in the work queue: x, top vector x, top vector y, bottom vector x, bottom vector y
+	private static final int COLUMN_SIZE = 5;
 
-	private final int range;
-	private final PathfindingTile[][] grid;
-	private final EnumBitflag<Passability> travelType;
-	private final Object self;
+	private int range;
+	private PathfindingTile[][] grid;
+	private EnumBitflag<Passability> travelType;
+	private Object self;
 
 	public boolean allowOutOfBounds = false;
 
 	private int startX;
 	private int startY;
 
+	private int[] queue = new int[COLUMN_SIZE * 32];
+	private int queueHead;
+	private int queueSize;
+
+	// cells already output this pass, indexed within the square of side range * 2 + 1 around the start
+	private int[] seen = new int[0];
+	private int seenGeneration;
+	private int seenSide;
+
+	private final IntArray packedOutput = new IntArray();
+
+	public ShadowCaster()
+	{
+	}
+
 	public ShadowCaster( PathfindingTile[][] grid, int range )
 	{
-		this.grid = grid;
-		this.range = range;
-		this.travelType = ShadowPassability;
-		this.self = null;
+		this( grid, range, ShadowPassability, null );
 	}
 
 	public ShadowCaster( PathfindingTile[][] grid, int range, EnumBitflag<Passability> travelType, Object self )
@@ -55,44 +80,134 @@ public class ShadowCaster
 		this.self = self;
 	}
 
+	public static ShadowCaster get()
+	{
+		return threadInstance.get();
+	}
+
+	// ----------------------------------------------------------------------
+	public static int pack( int x, int y )
+	{
+		return ( x << 16 ) | ( y & 0xFFFF );
+	}
+
+	// ----------------------------------------------------------------------
+	public static int unpackX( int packed )
+	{
+		return packed >> 16;
+	}
+
+	// ----------------------------------------------------------------------
+	public static int unpackY( int packed )
+	{
+		return (short) packed;
+	}
+
 	// Takes a circle in the form of a center point and radius, and a function
 	// that can tell whether a given cell is opaque. Calls the setFoV action on
 	// every cell that is both within the radius and visible from the center.
 
 	public void ComputeFOV( int x, int y, Array<Point> output )
+	{
+		computeFOV( x, y, packedOutput );
+
+		for ( int i = 0; i < packedOutput.size; i++ )
+		{
+			int packed = packedOutput.get( i );
+			output.add( Global.PointPool.obtain().set( unpackX( packed ), unpackY( packed ) ) );
+		}
+
+		packedOutput.clear();
+	}
+
+	/**
+	 * Appends the packed coordinates of every visible cell to output.
+	 */
+	public void computeFOV( PathfindingTile[][] grid, int x, int y, int range, EnumBitflag<Passability> travelType, Object self, boolean allowOutOfBounds, IntArray output )
+	{
+		this.grid = grid;
+		this.range = range;
+		this.travelType = travelType;
+		this.self = self;
+		this.allowOutOfBounds = allowOutOfBounds;
+
+		computeFOV( x, y, output );
+	}
+
+	private void computeFOV( int x, int y, IntArray output )
 	{
 		this.startX = MathUtils.clamp( x, 0, grid.length - 1 );
 		this.startY = MathUtils.clamp( y, 0, grid[0].length - 1 );
 
+		seenSide = range * 2 + 1;
+		if ( seen.length < seenSide * seenSide )
+		{
+			seen = new int[seenSide * seenSide];
+			seenGeneration = 0;
+		}
+
+		seenGeneration++;
+		if ( seenGeneration == Integer.MAX_VALUE )
+		{
+			Arrays.fill( seen, 0 );
+			seenGeneration = 1;
+		}
+
 		for ( int octant = 0; octant < 8; octant++ )
 		{
 			ComputeFieldOfViewInOctantZero( octant, output );
 		}
 	}
 
-	private void ComputeFieldOfViewInOctantZero( int octant, Array<Point> output )
+	private void ComputeFieldOfViewInOctantZero( int octant, IntArray output )
 	{
-		ArrayDeque<Column> queue = new ArrayDeque<Column>();
+		queueHead = 0;
+		queueSize = 0;
 
-		queue.addFirst( new Column( 0, new int[] { 1, 0 }, new int[] { 1, 1 }, octant ) );
+		enqueue( 0, 1, 1, 1, 0 );
 
-		while ( !queue.isEmpty() )
+		while ( queueSize > 0 )
 		{
-			Column current = queue.pollLast();
-			if ( current.getX() > range )
+			int entry = queueHead;
+			queueHead = ( queueHead + COLUMN_SIZE ) % queue.length;
+			queueSize -= COLUMN_SIZE;
+
+			int x = queue[entry];
+			if ( x > range )
 			{
 				continue;
 			}
 
-			ComputeFoVForColumnPortion( current.getX(), current.getTopVector(), current.getBottomVector(), queue, current.getOctant(), output );
+			ComputeFoVForColumnPortion( x, queue[entry + 1], queue[entry + 2], queue[entry + 3], queue[entry + 4], octant, output );
+		}
+	}
+
+	private void enqueue( int x, int topX, int topY, int bottomX, int bottomY )
+	{
+		if ( queueSize == queue.length )
+		{
+			int[] newQueue = new int[queue.length * 2];
+			int firstPart = Math.min( queueSize, queue.length - queueHead );
+			System.arraycopy( queue, queueHead, newQueue, 0, firstPart );
+			System.arraycopy( queue, 0, newQueue, firstPart, queueSize - firstPart );
+			queue = newQueue;
+			queueHead = 0;
 		}
+
+		int tail = ( queueHead + queueSize ) % queue.length;
+		queue[tail] = x;
+		queue[tail + 1] = topX;
+		queue[tail + 2] = topY;
+		queue[tail + 3] = bottomX;
+		queue[tail + 4] = bottomY;
+		queueSize += COLUMN_SIZE;
 	}
 
 	// This method has two main purposes: (1) it marks points inside the
 	// portion that are within the radius as in the field of view, and
 	// (2) it computes which portions of the following column are in the
 	// field of view, and puts them on a work queue for later processing.
-	private void ComputeFoVForColumnPortion( int x, int[] topVector, int[] bottomVector, ArrayDeque<Column> queue, int octant, Array<Point> output )
+	private void ComputeFoVForColumnPortion( int x, int topX, int topY, int bottomX, int bottomY, int octant, IntArray output )
 	{
 		// Search for transitions from opaque to transparent or
 		// transparent to opaque and use those to determine what
@@ -100,46 +215,46 @@ public class ShadowCaster
 
 		// Start at the top of the column portion and work down.
 
-		int topY;
+		int topCell;
 		if ( x == 0 )
 		{
-			topY = 0;
+			topCell = 0;
 		}
 		else
 		{
-			int quotient = ( 2 * x + 1 ) * topVector[1] / ( 2 * topVector[0] );
-			int remainder = ( 2 * x + 1 ) * topVector[1] % ( 2 * topVector[0] );
+			int quotient = ( 2 * x + 1 ) * topY / ( 2 * topX );
+			int remainder = ( 2 * x + 1 ) * topY % ( 2 * topX );
 
-			if ( remainder > topVector[0] )
+			if ( remainder > topX )
 			{
-				topY = quotient + 1;
+				topCell = quotient + 1;
 			}
 			else
 			{
-				topY = quotient;
+				topCell = quotient;
 			}
 		}
 
 		// Note that this can find a top cell that is actually entirely blocked
 		// by the cell below it; consider detecting and eliminating that.
 
-		int bottomY;
+		int bottomCell;
 		if ( x == 0 )
 		{
-			bottomY = 0;
+			bottomCell = 0;
 		}
 		else
 		{
-			int quotient = ( 2 * x - 1 ) * bottomVector[1] / ( 2 * bottomVector[0] );
-			int remainder = ( 2 * x - 1 ) * bottomVector[1] % ( 2 * bottomVector[0] );
+			int quotient = ( 2 * x - 1 ) * bottomY / ( 2 * bottomX );
+			int remainder = ( 2 * x - 1 ) * bottomY % ( 2 * bottomX );
 
-			if ( remainder >= bottomVector[0] )
+			if ( remainder >= bottomX )
 			{
-				bottomY = quotient + 1;
+				bottomCell = quotient + 1;
 			}
 			else
 			{
-				bottomY = quotient;
+				bottomCell = quotient;
 			}
 		}
 
@@ -151,39 +266,32 @@ public class ShadowCaster
 		// only transparent cells along the way. This is the "Permissive Field
 		// Of
 		// View" algorithm, and it is much harder to implement.
-		Boolean wasLastCellOpaque = null;
-		for ( int y = topY; y >= bottomY; y-- )
+
+		// 0 for none yet, 1 for transparent, 2 for opaque
+		int lastCell = 0;
+		for ( int y = topCell; y >= bottomCell; y-- )
 		{
-			Point temp = Global.PointPool.obtain();
-			Point translated = TranslateOctant( temp.set( x, y ), octant );
-			Global.PointPool.free( temp );
+			int translatedX = translateX( x, y, octant );
+			int translatedY = translateY( x, y, octant );
+			boolean outOfBounds = translatedX < 0 || translatedY < 0 || translatedX >= grid.length || translatedY >= grid[0].length;
 
-			boolean inRadius = IsInRadius( translated.x, translated.y );
+			boolean inRadius = IsInRadius( translatedX, translatedY );
 			if ( inRadius )
 			{
 				// The current cell is in the field of view.
 
-				if ( !allowOutOfBounds && ( translated.x < 0 || translated.y < 0 || translated.x >= grid.length || translated.y >= grid[0].length ) )
+				if ( !allowOutOfBounds && outOfBounds )
 				{
-					Global.PointPool.free( translated );
 					continue;
 				}
 
-				int tileVal = translated.y * grid.length + translated.x;
-				if ( !tileLookup.contains( tileVal ) )
+				int seenIndex = ( translatedX - startX + range ) * seenSide + ( translatedY - startY + range );
+				if ( seen[seenIndex] != seenGeneration )
 				{
-					output.add( translated );
-					tileLookup.add( tileVal );
-				}
-				else
-				{
-					Global.PointPool.free( translated );
+					seen[seenIndex] = seenGeneration;
+					output.add( pack( translatedX, translatedY ) );
 				}
 			}
-			else
-			{
-				Global.PointPool.free( translated );
-			}
 
 			// A cell that was too far away to be seen is effectively
 			// an opaque cell; nothing "above" it is going to be visible
@@ -191,22 +299,22 @@ public class ShadowCaster
 			// an opaque cell and not scan the cells that are also too
 			// far away in the next column.
 
-			boolean currentIsOpaque = !inRadius || isOpaque( x, y, octant );
-			if ( wasLastCellOpaque != null )
+			boolean currentIsOpaque = !inRadius || isOpaque( translatedX, translatedY, outOfBounds );
+			if ( lastCell != 0 )
 			{
 				if ( currentIsOpaque )
 				{
 					// We've found a boundary from transparent to opaque. Make a
 					// note of it and revisit it later.
-					if ( !wasLastCellOpaque.booleanValue() )
+					if ( lastCell == 1 )
 					{
 						// The new bottom vector touches the upper left corner
 						// of
 						// opaque cell that is below the transparent cell.
-						queue.addFirst( new Column( x + 1, new int[] { x * 2 - 1, y * 2 + 1 }, topVector, octant ) );
+						enqueue( x + 1, topX, topY, x * 2 - 1, y * 2 + 1 );
 					}
 				}
-				else if ( wasLastCellOpaque.booleanValue() )
+				else if ( lastCell == 2 )
 				{
 					// We've found a boundary from opaque to transparent. Adjust
 					// the top vector so that when we find the next boundary or
@@ -216,17 +324,18 @@ public class ShadowCaster
 					// The new top vector touches the lower right corner of the
 					// opaque cell that is above the transparent cell, which is
 					// the upper right corner of the current transparent cell.
-					topVector = new int[] { x * 2 + 1, y * 2 + 1 };
+					topX = x * 2 + 1;
+					topY = y * 2 + 1;
 				}
 			}
-			wasLastCellOpaque = currentIsOpaque;
+			lastCell = currentIsOpaque ? 2 : 1;
 		}
 
 		// Make a note of the lowest opaque-->transparent transition, if there
 		// is one.
-		if ( wasLastCellOpaque != null && !wasLastCellOpaque.booleanValue() )
+		if ( lastCell == 1 )
 		{
-			queue.addFirst( new Column( x + 1, bottomVector, topVector, octant ) );
+			enqueue( x + 1, topX, topY, bottomX, bottomY );
 		}
 	}
 
@@ -247,136 +356,55 @@ public class ShadowCaster
 	//
 	//
 
-	private Point TranslateOctant( Point thepos, int octant )
+	private int translateX( int x, int y, int octant )
 	{
-		Point pos = thepos.copy();
-
-		if ( octant == 1 )
-		{
-			int temp = pos.x;
-			pos.x = pos.y;
-			pos.y = temp;
-		}
-		else if ( octant == 2 )
-		{
-			int temp = pos.x;
-			pos.x = pos.y * -1;
-			pos.y = temp;
-		}
-		else if ( octant == 3 )
-		{
-			pos.x = pos.x * -1;
-		}
-		else if ( octant == 4 )
-		{
-			int temp = pos.x * -1;
-			pos.x = pos.y * -1;
-			pos.y = temp;
-		}
-		else if ( octant == 5 )
-		{
-			pos.y = pos.y * -1;
-			pos.x = pos.x * -1;
-		}
-		else if ( octant == 6 )
-		{
-			int temp = pos.y;
-			pos.y = pos.x * -1;
-			pos.x = temp;
-		}
-		else if ( octant == 7 )
+		switch ( octant )
 		{
-			pos.y = pos.y * -1;
+			case 1:
+				return y + startX;
+			case 2:
+				return -y + startX;
+			case 3:
+				return -x + startX;
+			case 4:
+				return -y + startX;
+			case 5:
+				return -x + startX;
+			case 6:
+				return y + startX;
+			default:
+				return x + startX;
 		}
-
-		pos.x = ( pos.x ) + startX;
-		pos.y = ( pos.y ) + startY;
-
-		return pos;
 	}
 
-	private boolean isOpaque( int x, int y, int octant )
+	private int translateY( int x, int y, int octant )
 	{
-		Point temp = Global.PointPool.obtain();
-		Point pos = TranslateOctant( temp.set( x, y ), octant );
-		Global.PointPool.free( temp );
-
-		// hack to prevent start tile from blocking sight
-		if ( pos.x == startX && pos.y == startY )
-		{
-			Global.PointPool.free( pos );
-			return false;
-		}
-
-		boolean opaque = false;
-
-		if ( allowOutOfBounds && ( pos.x < 0 || pos.y < 0 || pos.x >= grid.length || pos.y >= grid[0].length ) )
+		switch ( octant )
 		{
-			opaque = false;
+			case 1:
+				return x + startY;
+			case 2:
+				return x + startY;
+			case 4:
+				return -x + startY;
+			case 5:
+				return -y + startY;
+			case 6:
+				return -x + startY;
+			case 7:
+				return -y + startY;
+			default:
+				return y + startY;
 		}
-		else
-		{
-			opaque = !grid[pos.x][pos.y].getPassable( travelType, self );
-		}
-
-		Global.PointPool.free( pos );
-
-		return opaque;
-	}
-}
-
-class Column
-{
-	private int X;
-	private int[] BottomVector;
-	private int[] TopVector;
-	private int octant;
-
-	public Column( int x, int[] bottom, int[] top, int octant )
-	{
-		this.setOctant( octant );
-		this.X = x;
-		this.BottomVector = bottom;
-		this.TopVector = top;
-	}
-
-	public int getX()
-	{
-		return X;
 	}
 
-	public void setX( int X )
+	private boolean isOpaque( int x, int y, boolean outOfBounds )
 	{
-		this.X = X;
-	}
-
-	public int[] getBottomVector()
-	{
-		return BottomVector;
-	}
-
-	public void setBottomVector( int[] v )
-	{
-		BottomVector = v;
-	}
-
-	public int[] getTopVector()
-	{
-		return TopVector;
-	}
-
-	public void setTopVector( int[] v )
-	{
-		TopVector = v;
-	}
+		// hack to prevent start tile from blocking sight
+		if ( x == startX && y == startY ) { return false; }
 
-	public int getOctant()
-	{
-		return octant;
-	}
+		if ( allowOutOfBounds && outOfBounds ) { return false; }
 
-	public void setOctant( int octant )
-	{
-		this.octant = octant;
+		return !grid[x][y].getPassable( travelType, self );
 	}
-}
\ No newline at end of file
+}
@@ -2,6 +2,8 @@ package Roguelike.Quests;
 
 import Roguelike.AssetManager;
 import Roguelike.DungeonGeneration.DungeonFileParser;
+import Roguelike.DungeonGeneration.GenerationTask;
+import Roguelike.DungeonGeneration.PregeneratedLevelCache;
 import Roguelike.Entity.GameEntity;
 import Roguelike.Global;
 import Roguelike.Quests.Input.AbstractQuestInput;
@@ -152,16 +154,38 @@ public final class Quest
 		return room;
 	}
 
-	public void createLevel( GameEntity player )
+	// The level file is named after the quest, PregeneratedLevelCache relies on this to match quests to levels
+	public SaveLevel createSaveLevel( long seed )
 	{
 		Array<DungeonFileParser.DFPRoom> requiredRooms = new Array<DungeonFileParser.DFPRoom>(  );
 		requiredRooms.add( getPlayerShip() );
 		requiredRooms.addAll( rooms );
 
-		SaveLevel level = new SaveLevel( name, requiredRooms, Global.QuestManager.seed );
+		return new SaveLevel( name, requiredRooms, seed );
+	}
+
+	public void createLevel( GameEntity player )
+	{
+		SaveLevel level;
+		GenerationTask task = null;
+
+		PregeneratedLevelCache.Entry entry = Global.LevelCache.take( this, Global.QuestManager.seed );
+		if ( entry != null )
+		{
+			level = entry.saveLevel;
+			task = entry.task;
+		}
+		else
+		{
+			level = createSaveLevel( Global.QuestManager.seed );
+		}
+
+		// the missions that were not picked are no longer needed
+		Global.LevelCache.clear();
+
 		Global.QuestManager.currentLevel = level;
 
-		LoadingScreen.Instance.set( level, this, player, "playerspawn", null );
+		LoadingScreen.Instance.set( level, this, player, "playerspawn", null, task );
 		RoguelikeGame.Instance.switchScreen( RoguelikeGame.ScreenEnum.LOADING );
 	}
 
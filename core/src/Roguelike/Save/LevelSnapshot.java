@@ -0,0 +1,224 @@
+package Roguelike.Save;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import Roguelike.Levels.Level;
+import Roguelike.Tiles.GameTile;
+import Roguelike.Tiles.TileData;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.ObjectIntMap;
+import com.badlogic.gdx.utils.XmlReader;
+import com.badlogic.gdx.utils.XmlReader.Element;
+
+/**
+ * The geometry of a generated level packed into a byte array, so a saved level can be rebuilt without rerunning the
+ * generator. Holds a palette of the tile definitions used, a run length encoded grid of palette and sprite group
+ * indices in x * height + y order, and the tile meta values. Entities, fields and items are saved separately by
+ * SaveLevel.
+ */
+public final class LevelSnapshot
+{
+	// ----------------------------------------------------------------------
+	private static final int VERSION = 1;
+
+	// ----------------------------------------------------------------------
+	// Returns null if a tile was not loaded from xml, as there is then nothing to rebuild it from
+	public static byte[] write( Level level )
+	{
+		int width = level.width;
+		int height = level.height;
+
+		Array<Element> palette = new Array<Element>();
+		ObjectIntMap<Element> paletteIndices = new ObjectIntMap<Element>();
+		int[] cells = new int[width * height];
+
+		for ( int x = 0; x < width; x++ )
+		{
+			for ( int y = 0; y < height; y++ )
+			{
+				GameTile tile = level.Grid[x][y];
+				Element source = tile.tileData.source;
+				if ( source == null ) { return null; }
+
+				int index = paletteIndices.get( source, -1 );
+				if ( index == -1 )
+				{
+					index = palette.size;
+					palette.add( source );
+					paletteIndices.put( source, index );
+				}
+
+				int group = Math.max( 0, tile.tileData.spriteGroups.indexOf( tile.spriteGroup, true ) );
+				cells[x * height + y] = ( index << 8 ) | group;
+			}
+		}
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream output = new DataOutputStream( bytes );
+
+		try
+		{
+			output.writeInt( VERSION );
+			output.writeInt( width );
+			output.writeInt( height );
+
+			output.writeInt( palette.size );
+			for ( Element element : palette )
+			{
+				output.writeUTF( element.toString() );
+			}
+
+			int i = 0;
+			while ( i < cells.length )
+			{
+				int value = cells[i];
+				int run = 1;
+				while ( i + run < cells.length && cells[i + run] == value )
+				{
+					run++;
+				}
+
+				writeVarInt( output, run );
+				writeVarInt( output, value );
+				i += run;
+			}
+
+			int metaCount = 0;
+			for ( int x = 0; x < width; x++ )
+			{
+				for ( int y = 0; y < height; y++ )
+				{
+					if ( level.Grid[x][y].metaValue.size > 0 )
+					{
+						metaCount++;
+					}
+				}
+			}
+
+			writeVarInt( output, metaCount );
+			for ( int x = 0; x < width; x++ )
+			{
+				for ( int y = 0; y < height; y++ )
+				{
+					Array<String> meta = level.Grid[x][y].metaValue;
+					if ( meta.size == 0 )
+					{
+						continue;
+					}
+
+					writeVarInt( output, x * height + y );
+					writeVarInt( output, meta.size );
+					for ( String value : meta )
+					{
+						output.writeUTF( value );
+					}
+				}
+			}
+
+			output.close();
+		}
+		catch ( IOException e )
+		{
+			throw new GdxRuntimeException( e );
+		}
+
+		return bytes.toByteArray();
+	}
+
+	// ----------------------------------------------------------------------
+	public static Level read( byte[] data )
+	{
+		DataInputStream input = new DataInputStream( new ByteArrayInputStream( data ) );
+
+		try
+		{
+			int version = input.readInt();
+			if ( version != VERSION ) { throw new GdxRuntimeException( "Unsupported level snapshot version " + version ); }
+
+			int width = input.readInt();
+			int height = input.readInt();
+
+			XmlReader reader = new XmlReader();
+			Element[] palette = new Element[input.readInt()];
+			for ( int i = 0; i < palette.length; i++ )
+			{
+				palette[i] = reader.parse( input.readUTF() );
+			}
+
+			GameTile[][] grid = new GameTile[width][height];
+			Level level = new Level( grid );
+
+			int cell = 0;
+			while ( cell < width * height )
+			{
+				int run = readVarInt( input );
+				int value = readVarInt( input );
+
+				Element source = palette[value >>> 8];
+				int group = value & 0xFF;
+
+				for ( int i = 0; i < run; i++, cell++ )
+				{
+					int x = cell / height;
+					int y = cell % height;
+
+					// every tile gets its own TileData, the same as when the level was generated
+					grid[x][y] = new GameTile( x, y, level, TileData.parse( source ), group );
+				}
+			}
+
+			int metaCount = readVarInt( input );
+			for ( int i = 0; i < metaCount; i++ )
+			{
+				int index = readVarInt( input );
+				int count = readVarInt( input );
+
+				GameTile tile = grid[index / height][index % height];
+				for ( int ii = 0; ii < count; ii++ )
+				{
+					tile.metaValue.add( input.readUTF() );
+				}
+			}
+
+			return level;
+		}
+		catch ( IOException e )
+		{
+			throw new GdxRuntimeException( e );
+		}
+	}
+
+	// ----------------------------------------------------------------------
+	private static void writeVarInt( DataOutputStream output, int value ) throws IOException
+	{
+		while ( ( value & ~0x7F ) != 0 )
+		{
+			output.writeByte( ( value & 0x7F ) | 0x80 );
+			value >>>= 7;
+		}
+		output.writeByte( value );
+	}
+
+	// ----------------------------------------------------------------------
+	private static int readVarInt( DataInputStream input ) throws IOException
+	{
+		int value = 0;
+		int shift = 0;
+		int b;
+		do
+		{
+			b = input.readUnsignedByte();
+			value |= ( b & 0x7F ) << shift;
+			shift += 7;
+		}
+		while ( ( b & 0x80 ) != 0 );
+
+		return value;
+	}
+}
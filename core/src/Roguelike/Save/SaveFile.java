@@ -65,11 +65,19 @@ import com.esotericsoftware.kryo.io.Input;
 import com.esotericsoftware.kryo.io.Output;
 import com.esotericsoftware.minlog.Log;
 import kryo.FastEnumMapSerializer;
+import kryo.XmlElementSerializer;
 
 import java.io.IOException;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.util.HashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.GZIPOutputStream;
 
@@ -80,6 +88,13 @@ public final class SaveFile
 {
 	private static Kryo kryo;
 
+	// Saves are serialised into one of two buffers on the game thread, then compressed and written by the writer thread
+	// while the next save can already fill the other one.
+	private static final Output[] buffers = { new Output( 4096, -1 ), new Output( 4096, -1 ) };
+	private static final Future<?>[] bufferWrites = new Future<?>[2];
+	private static int nextBuffer;
+	private static ExecutorService writer;
+
 	public QuestManager questManager;
 	public Array<Item> unlockedItems;
 	public int funds;
@@ -91,38 +106,155 @@ public final class SaveFile
 	{
 		setupKryo();
 
+		int index = nextBuffer;
+		nextBuffer = ( nextBuffer + 1 ) % buffers.length;
+
+		// the buffer is only reused once the save before last has been written out
+		waitForWrite( index );
+
+		Output output = buffers[index];
+		output.clear();
+
+		kryo.writeObject( output, questManager );
+		kryo.writeObject( output, unlockedItems );
+		output.writeInt( funds );
+		kryo.writeObject( output, market );
+		kryo.writeObject( output, missions );
+		kryo.writeObject( output, loadout );
+
+		final byte[] data = output.getBuffer();
+		final int length = output.position();
+
+		bufferWrites[index] = getWriter().submit( new Runnable()
+		{
+			@Override
+			public void run()
+			{
+				write( data, length );
+			}
+		} );
+	}
+
+	// Blocks until every save that has been started is on disk
+	public static void flush()
+	{
+		for ( int i = 0; i < buffers.length; i++ )
+		{
+			waitForWrite( i );
+		}
+	}
+
+	private static void write( byte[] data, int length )
+	{
 		FileHandle attemptFile = Gdx.files.local( "attempt_save.dat" );
+		FileHandle actualFile = Gdx.files.local( "save.dat" );
 
-		Output output = null;
 		try
 		{
-			output = new Output( new GZIPOutputStream( attemptFile.write( false ) ) );
+			GZIPOutputStream stream = new GZIPOutputStream( attemptFile.write( false ) );
+			stream.write( data, 0, length );
+			stream.close();
 		}
 		catch ( IOException e )
 		{
 			e.printStackTrace();
+			return;
 		}
 
-		kryo.writeObject( output, questManager );
-		kryo.writeObject( output, unlockedItems );
-		output.writeInt( funds );
-		kryo.writeObject( output, market );
-		kryo.writeObject( output, missions );
-		kryo.writeObject( output, loadout );
+		// a rename replaces the old save in one step, so it is never left half written
+		if ( !attemptFile.file().renameTo( actualFile.file() ) )
+		{
+			// some platforms will not rename over an existing file, so move the old save aside and only delete it once
+			// the new one is in place. recover() picks up the pieces if this is interrupted.
+			FileHandle backupFile = Gdx.files.local( "backup_save.dat" );
+			backupFile.delete();
+
+			if ( !actualFile.file().renameTo( backupFile.file() ) || !attemptFile.file().renameTo( actualFile.file() ) )
+			{
+				System.err.println( "Failed to replace save.dat" );
+				return;
+			}
+
+			backupFile.delete();
+		}
 
-		output.close();
+		System.out.println( "Saved" );
+	}
 
-		byte[] bytes = attemptFile.readBytes();
+	// Restores save.dat if a write was interrupted between moving the old save aside and moving the new one in
+	private static void recover()
+	{
 		FileHandle actualFile = Gdx.files.local( "save.dat" );
-		actualFile.writeBytes( bytes, false );
+		if ( actualFile.exists() ) { return; }
 
-		attemptFile.delete();
+		// the attempt file is only ever renamed after it has been written completely, so it is the newest good save
+		FileHandle attemptFile = Gdx.files.local( "attempt_save.dat" );
+		FileHandle backupFile = Gdx.files.local( "backup_save.dat" );
 
-		System.out.println( "Saved" );
+		if ( attemptFile.exists() && backupFile.exists() )
+		{
+			attemptFile.file().renameTo( actualFile.file() );
+			backupFile.delete();
+		}
+		else if ( backupFile.exists() )
+		{
+			backupFile.file().renameTo( actualFile.file() );
+		}
+	}
+
+	// Deletes the save along with anything left over from an interrupted write
+	public static void delete()
+	{
+		flush();
+
+		Gdx.files.local( "save.dat" ).delete();
+		Gdx.files.local( "attempt_save.dat" ).delete();
+		Gdx.files.local( "backup_save.dat" ).delete();
+	}
+
+	private static void waitForWrite( int index )
+	{
+		Future<?> write = bufferWrites[index];
+		if ( write == null ) { return; }
+
+		try
+		{
+			write.get();
+		}
+		catch ( InterruptedException e )
+		{
+			Thread.currentThread().interrupt();
+		}
+		catch ( ExecutionException e )
+		{
+			e.printStackTrace();
+		}
+
+		bufferWrites[index] = null;
+	}
+
+	private static ExecutorService getWriter()
+	{
+		if ( writer == null )
+		{
+			// no core threads, so the writer thread goes away once it is idle and never keeps the app alive
+			writer = new ThreadPoolExecutor( 0, 1, 1, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), new ThreadFactory()
+			{
+				@Override
+				public Thread newThread( Runnable runnable )
+				{
+					return new Thread( runnable, "SaveWriter" );
+				}
+			} );
+		}
+
+		return writer;
 	}
 
 	public void load()
 	{
+		flush();
+		recover();
 		setupKryo();
 
 		Input input = null;
@@ -378,24 +510,7 @@ public final class SaveFile
 			}
 		} );
 
-		kryo.register( Element.class, new Serializer<Element>()
-		{
-			@Override
-			public Element read( Kryo kryo, Input input, Class<Element> type )
-			{
-				String xml = input.readString();
-
-				XmlReader reader = new XmlReader();
-				Element element = reader.parse( xml );
-				return element;
-			}
-
-			@Override
-			public void write( Kryo kryo, Output output, Element element )
-			{
-				output.writeString( element.toString() );
-			}
-		} );
+		kryo.register( Element.class, new XmlElementSerializer() );
 
 		kryo.register( ObjectMap.class, new Serializer<ObjectMap>()
 		{
@@ -637,6 +752,7 @@ public final class SaveFile
 		kryo.register( HashMap.class );
 		kryo.register( String[].class );
 		kryo.register( int[].class );
+		kryo.register( byte[].class );
 		kryo.register( Object.class );
 		kryo.register( Object[].class );
 		kryo.register( char[].class );
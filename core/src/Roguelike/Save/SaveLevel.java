@@ -27,6 +27,9 @@ public final class SaveLevel extends SaveableObject<Level>
 
 	public boolean[][] seenState;
 
+	// the tile layout, written the first time the level is stored so it never has to be generated again
+	public byte[] geometry;
+
 	public SaveLevel()
 	{
 
@@ -62,6 +65,11 @@ public final class SaveLevel extends SaveableObject<Level>
 		seed = obj.seed;
 		UID = obj.UID;
 
+		if ( geometry == null )
+		{
+			geometry = LevelSnapshot.write( obj );
+		}
+
 		requiredRooms.clear();
 		if ( obj.requiredRooms != null )
 		{
@@ -19,7 +19,9 @@ import Roguelike.Items.Item;
 import Roguelike.Levels.Level;
 import Roguelike.RoguelikeGame;
 import Roguelike.RoguelikeGame.ScreenEnum;
+import Roguelike.Save.SaveFile;
 import Roguelike.Sound.SoundInstance;
+import Roguelike.Sprite.GroundTileCache;
 import Roguelike.Sprite.Sprite;
 import Roguelike.Sprite.SpriteAnimation.MoveAnimation;
 import Roguelike.Sprite.SpriteEffect;
@@ -30,6 +32,7 @@ import Roguelike.UI.*;
 import Roguelike.UI.Tooltip;
 import Roguelike.Util.Controls;
 import Roguelike.Util.EnumBitflag;
+import Roguelike.Util.TileBitset;
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.Input.Buttons;
 import com.badlogic.gdx.Input.Keys;
@@ -56,6 +59,7 @@ import com.badlogic.gdx.scenes.scene2d.utils.ClickListener;
 import com.badlogic.gdx.utils.*;
 import com.badlogic.gdx.utils.viewport.ScreenViewport;
 
+import java.util.Arrays;
 import java.util.EnumMap;
 
 public class GameScreen implements Screen, InputProcessor, GestureListener
@@ -213,20 +217,13 @@ public class GameScreen implements Screen, InputProcessor, GestureListener
 
 				if ( level.isInTurn() )
 				{
-					// advance whilst time allows it
-					long milliDelta = lastSleep;
-					long currentTime = System.currentTimeMillis();
-					while ( true )
+					// advance whilst time allows it, always doing at least one step so a busy frame can't stall the turn
+					long endTime = System.nanoTime() + lastSleep;
+					do
 					{
 						level.doTurnWork();
-						long diff = System.currentTimeMillis() - currentTime;
-						milliDelta -= diff;
-
-						if ( milliDelta <= 0 || !level.isInTurn() )
-						{
-							break;
-						}
 					}
+					while ( level.isInTurn() && System.nanoTime() < endTime );
 				}
 			}
 
@@ -344,6 +341,7 @@ public class GameScreen implements Screen, InputProcessor, GestureListener
 		if ( !Global.RELEASE )
 		{
 			font.draw( batch, "FPS: " + fps, 20, Global.Resolution[ 1 ] - 20 );
+			font.draw( batch, Global.CurrentLevel.turnScheduler.getLastTurnTimings(), 20, Global.Resolution[ 1 ] - 40 );
 		}
 
 		batch.end();
@@ -394,6 +392,9 @@ public class GameScreen implements Screen, InputProcessor, GestureListener
 	public void pause()
 	{
 		Global.save();
+
+		// the app may not come back from here, so the save has to be on disk
+		SaveFile.flush();
 	}
 
 	// ----------------------------------------------------------------------
@@ -447,6 +448,8 @@ public class GameScreen implements Screen, InputProcessor, GestureListener
 	// ----------------------------------------------------------------------
 	private void renderVisibleTiles( int offsetx, int offsety, int tileSize3 )
 	{
+		groundTileCache.begin( Global.CurrentLevel, Global.TileSize );
+
 		for ( int x = 0; x < Global.CurrentLevel.width; x++ )
 		{
 			int drawX = x * Global.TileSize + offsetx;
@@ -477,38 +480,63 @@ public class GameScreen implements Screen, InputProcessor, GestureListener
 							//queueSprite( fogSprite.getSprite( gtile.unseenBitflag ), unseenFogCol, drawX, drawY, Global.TileSize, Global.TileSize, offsetx, offsety, RenderLayer.UNSEENFOG, 0 );
 						}
 
+						groundTileCache.setTile( x, y, 0, 0, 0 );
 						continue;
 					}
 
-					Color notVisibleCol = gtile.light.cpy();
+					Color tileLight = Global.CurrentLevel.lightMap.getColour( x, y, tileLightCol );
+
+					notVisibleCol.set( tileLight );
 					if (!gtile.visible) { notVisibleCol.mul(seenCol); }
 					if (!gtile.seen) { notVisibleCol.mul(unseenFogCol); }
 
+					// static ground sprites are drawn from the chunk cache, until the first one that isn't so the order holds
+					int cachedSprites = 0;
+					int cachedTiling = 0;
+					boolean cacheGround = true;
+
 					for ( int i = 0; i < gtile.getSprites().size; i++ )
 					{
 						Sprite sprite = gtile.getSprites().get(i);
 
-						Color col = gtile.light;
+						Color col = tileLight;
 						if (sprite.drawActualSize)
 						{
 							col = notVisibleCol;
 						}
+						else if ( cacheGround && i < GroundTileCache.TILING_SPRITE_BIT && GroundTileCache.isStatic( sprite ) )
+						{
+							cachedSprites |= 1 << i;
+							continue;
+						}
+						else
+						{
+							cacheGround = false;
+						}
 
 						queueSprite( sprite, col, drawX, drawY, Global.TileSize, Global.TileSize, offsetx, offsety, sprite.drawActualSize ? RenderLayer.OBJECT : RenderLayer.GROUNDTILE, i );
 					}
 
 					if ( gtile.getTilingSprite() != null )
 					{
-						Global.CurrentLevel.buildTilingBitflag(directionBitflag, x, y, gtile.getTilingSprite().checkID);
+						directionBitflag.setBitFlag( Global.CurrentLevel.getTilingBitflag( x, y, gtile.getTilingSprite().checkID ) );
 						Sprite sprite = gtile.getTilingSprite().getSprite( directionBitflag );
 
-						Color col = gtile.light;
+						Color col = tileLight;
 						if (sprite.drawActualSize)
 						{
 							col = notVisibleCol;
 						}
 
-						queueSprite( sprite, col, drawX, drawY, Global.TileSize, Global.TileSize, offsetx, offsety, sprite.drawActualSize ? RenderLayer.OBJECT : RenderLayer.GROUNDTILE, gtile.getSprites().size );
+						if ( !sprite.drawActualSize && cacheGround && GroundTileCache.isStatic( sprite ) )
+						{
+							cachedSprites |= 1 << GroundTileCache.TILING_SPRITE_BIT;
+							cachedTiling = directionBitflag.getBitFlag();
+						}
+						else
+						{
+							queueSprite( sprite, col, drawX, drawY, Global.TileSize, Global.TileSize, offsetx, offsety, sprite.drawActualSize ? RenderLayer.OBJECT : RenderLayer.GROUNDTILE, gtile.getSprites().size );
+						}
 
 						if (gtile.getTilingSprite().overhangSprite != null && directionBitflag.contains( Direction.NORTH ))
 						{
@@ -516,6 +544,8 @@ public class GameScreen implements Screen, InputProcessor, GestureListener
 						}
 					}
 
+					groundTileCache.setTile( x, y, cachedSprites, tileLight.toFloatBits(), cachedTiling );
+
 					if ( gtile.hasFields )
 					{
 						for ( FieldLayer layer : FieldLayer.values() )
@@ -528,7 +558,7 @@ public class GameScreen implements Screen, InputProcessor, GestureListener
 
 								if ( group.tilingSprite != null )
 								{
-									Global.CurrentLevel.buildTilingBitflag(directionBitflag, x, y, group.tilingSprite.checkID);
+									directionBitflag.setBitFlag( Global.CurrentLevel.getTilingBitflag( x, y, group.tilingSprite.checkID ) );
 									sprite = group.tilingSprite.getSprite( directionBitflag );
 
 									if (group.tilingSprite.overhangSprite != null && directionBitflag.contains( Direction.NORTH ))
@@ -539,7 +569,7 @@ public class GameScreen implements Screen, InputProcessor, GestureListener
 
 								if ( field.layer == FieldLayer.GROUND )
 								{
-									queueSprite( sprite, gtile.light, drawX, drawY, Global.TileSize, Global.TileSize, offsetx, offsety, RenderLayer.GROUNDFIELD, 1 );
+									queueSprite( sprite, tileLight, drawX, drawY, Global.TileSize, Global.TileSize, offsetx, offsety, RenderLayer.GROUNDFIELD, 1 );
 								}
 								else
 								{
@@ -567,7 +597,7 @@ public class GameScreen implements Screen, InputProcessor, GestureListener
 						}
 						else if ( entity.tilingSprite != null )
 						{
-							Global.CurrentLevel.buildTilingBitflag(directionBitflag, x, y, entity.tilingSprite.checkID);
+							directionBitflag.setBitFlag( Global.CurrentLevel.getTilingBitflag( x, y, entity.tilingSprite.checkID ) );
 							sprite = entity.tilingSprite.getSprite( directionBitflag );
 
 							if (entity.tilingSprite.overhangSprite != null && directionBitflag.contains( Direction.NORTH ))
@@ -638,7 +668,7 @@ public class GameScreen implements Screen, InputProcessor, GestureListener
 							}
 							else if ( entity.tilingSprite != null )
 							{
-								Global.CurrentLevel.buildTilingBitflag(directionBitflag, x, y, gtile.getTilingSprite().checkID);
+								directionBitflag.setBitFlag( Global.CurrentLevel.getTilingBitflag( x, y, gtile.getTilingSprite().checkID ) );
 								sprite = gtile.getTilingSprite().getSprite( directionBitflag );
 
 								if (entity.tilingSprite.overhangSprite != null && directionBitflag.contains( Direction.NORTH ))
@@ -678,18 +708,18 @@ public class GameScreen implements Screen, InputProcessor, GestureListener
 						{
 							if ( gtile.items.size == 1 )
 							{
-								queueSprite( gtile.items.get( 0 ).getIcon(), gtile.light, drawX, drawY, Global.TileSize, Global.TileSize, offsetx, offsety, RenderLayer.ITEM, 0 );
+								queueSprite( gtile.items.get( 0 ).getIcon(), tileLight, drawX, drawY, Global.TileSize, Global.TileSize, offsetx, offsety, RenderLayer.ITEM, 0 );
 							}
 							else
 							{
 								Sprite sprite = bag;
-								queueSprite( sprite, gtile.light, drawX, drawY, Global.TileSize, Global.TileSize, offsetx, offsety, RenderLayer.ITEM, 0 );
+								queueSprite( sprite, tileLight, drawX, drawY, Global.TileSize, Global.TileSize, offsetx, offsety, RenderLayer.ITEM, 0 );
 
 								for ( Item item : gtile.items )
 								{
 									if ( item.getIcon().spriteAnimation != null )
 									{
-										queueSprite( item.getIcon(), gtile.light, drawX, drawY, Global.TileSize, Global.TileSize, offsetx, offsety, RenderLayer.ITEM, 0 );
+										queueSprite( item.getIcon(), tileLight, drawX, drawY, Global.TileSize, Global.TileSize, offsetx, offsety, RenderLayer.ITEM, 0 );
 									}
 								}
 							}
@@ -713,6 +743,9 @@ public class GameScreen implements Screen, InputProcessor, GestureListener
 				}
 			}
 		}
+
+		// ground tiles are the bottom layer, so drawing them ahead of the queue keeps the order
+		groundTileCache.render( batch, offsetx, offsety, Global.Resolution[0], Global.Resolution[1] );
 	}
 
 	// ----------------------------------------------------------------------
@@ -1008,27 +1041,31 @@ public class GameScreen implements Screen, InputProcessor, GestureListener
 
 		RenderSprite rs = renderSpritePool.obtain().set( sprite, colour, x, y, width, height, offsetx, offsety, layer, index );
 
-		queuedSprites.add( rs, rs.comparisonVal );
+		queuedSprites.add( rs );
 	}
 
 	// ----------------------------------------------------------------------
 	private void flush( Batch batch )
 	{
-		Color col = batch.getColor();
-		while (queuedSprites.size > 0)
+		queuedSprites.sort();
+
+		// only touch the batch colour where a run of equal colours starts
+		float col = batch.getPackedColor();
+		for ( int i = 0; i < queuedSprites.size; i++ )
 		{
-			RenderSprite rs = queuedSprites.pop();
+			RenderSprite rs = queuedSprites.get( i );
 
-			temp.set( rs.colour );
-			if ( !temp.equals( col ) )
+			if ( rs.colour != col )
 			{
-				batch.setColor( temp );
-				col.set( temp );
+				batch.setColor( rs.colour );
+				col = rs.colour;
 			}
 
 			rs.sprite.render( batch, rs.x, rs.y, rs.width, rs.height );
 			renderSpritePool.free( rs );
 		}
+
+		queuedSprites.clear();
 	}
 
 	// ----------------------------------------------------------------------
@@ -1443,7 +1480,7 @@ public class GameScreen implements Screen, InputProcessor, GestureListener
 					if ( x >= 0 && x < Global.CurrentLevel.width && y >= 0 && y < Global.CurrentLevel.height )
 					{
 						GameTile tile = Global.CurrentLevel.getGameTile( x, y );
-						if ( preparedAbility.isTargetValid( tile, abilityTiles ) && Global.CurrentLevel.player.tasks.size == 0 )
+						if ( abilityTileSet.get( tile.x, tile.y ) && Global.CurrentLevel.player.tasks.size == 0 )
 						{
 							Global.CurrentLevel.player.tasks.add( new TaskUseAbility( Global.PointPool.obtain().set( x, y ), preparedAbility ) );
 							preparedAbility = null;
@@ -1550,12 +1587,15 @@ public class GameScreen implements Screen, InputProcessor, GestureListener
 				if (preparedAbility != null)
 				{
 					selectedAbilityTile = null;
-					for ( Point p : abilityTiles )
+					if ( abilityTileSet.get( tile.x, tile.y ) )
 					{
-						if ( p.x == x && p.y == y )
+						for ( Point p : abilityTiles )
 						{
-							selectedAbilityTile = p;
-							break;
+							if ( p.x == x && p.y == y )
+							{
+								selectedAbilityTile = p;
+								break;
+							}
 						}
 					}
 				}
@@ -1715,6 +1755,11 @@ public class GameScreen implements Screen, InputProcessor, GestureListener
 			Global.PointPool.freeAll( abilityTiles );
 		}
 		abilityTiles = preparedAbility.getValidTargets();
+		abilityTileSet.setSize( Global.CurrentLevel.width, Global.CurrentLevel.height );
+		for ( Point p : abilityTiles )
+		{
+			abilityTileSet.set( p.x, p.y );
+		}
 		selectedAbilityTile = null;
 		selectedAbilityTileIndex = -1;
 
@@ -1824,8 +1869,8 @@ public class GameScreen implements Screen, InputProcessor, GestureListener
 	{
 		if ( fps > 0 )
 		{
-			diff = System.currentTimeMillis() - start;
-			long targetDelay = 1000 / fps;
+			diff = System.nanoTime() - start;
+			long targetDelay = 1000000000L / fps;
 
 			lastSleep = targetDelay - diff;
 
@@ -1833,13 +1878,13 @@ public class GameScreen implements Screen, InputProcessor, GestureListener
 			{
 				try
 				{
-					Thread.sleep( lastSleep );
+					Thread.sleep( lastSleep / 1000000, (int) ( lastSleep % 1000000 ) );
 				}
 				catch ( InterruptedException e )
 				{
 				}
 			}
-			start = System.currentTimeMillis();
+			start = System.nanoTime();
 		}
 	}
 
@@ -2190,6 +2235,7 @@ public class GameScreen implements Screen, InputProcessor, GestureListener
 	private static final float ScreenShakeSpeed = 0.02f;
 
 	// ----------------------------------------------------------------------
+	// nanoseconds the last frame had spare, which is the budget for turn work in the next
 	private long lastSleep;
 
 	// ----------------------------------------------------------------------
@@ -2215,6 +2261,7 @@ public class GameScreen implements Screen, InputProcessor, GestureListener
 	// ----------------------------------------------------------------------
 	public ActiveAbility preparedAbility;
 	private Array<Point> abilityTiles;
+	private final TileBitset abilityTileSet = new TileBitset();
 	private Point selectedAbilityTile;
 	private int selectedAbilityTileIndex;
 	public Array<Point> weaponTiles;
@@ -2222,7 +2269,7 @@ public class GameScreen implements Screen, InputProcessor, GestureListener
 	//private Tooltip tooltip;
 
 	// ----------------------------------------------------------------------
-	private BinaryHeap<RenderSprite> queuedSprites = new BinaryHeap<RenderSprite>( );
+	private final RenderQueue queuedSprites = new RenderQueue();
 	private Array<Entity> hasStatus = new Array<Entity>();
 	private Array<Entity> entitiesWithSpeech = new Array<Entity>();
 
@@ -2248,6 +2295,9 @@ public class GameScreen implements Screen, InputProcessor, GestureListener
 	private static final Color seenFogCol = new Color( 0, 0, 0, 0.5f );
 	private static final Color seenCol = new Color( 0.5f, 0.5f, 0.5f, 1f );
 	private static final Color unseenFogCol = new Color( 0, 0, 0, 1 );
+	private final Color tileLightCol = new Color();
+	private final Color notVisibleCol = new Color();
+	private final GroundTileCache groundTileCache = new GroundTileCache();
 
 	// ----------------------------------------------------------------------
 	private AbilityPanel abilityPanel;
@@ -2262,7 +2312,7 @@ public class GameScreen implements Screen, InputProcessor, GestureListener
 	public boolean lockContextMenu;
 
 	// ----------------------------------------------------------------------
-	private long diff, start = System.currentTimeMillis();
+	private long diff, start = System.nanoTime();
 
 	// ----------------------------------------------------------------------
 	private float lastZoom;
@@ -2291,9 +2341,9 @@ public class GameScreen implements Screen, InputProcessor, GestureListener
 	// ####################################################################//
 	// region Classes
 
-	public static class RenderSprite extends BinaryHeap.Node
+	public static class RenderSprite
 	{
-		public final Color colour = new Color();
+		public float colour;
 		public Sprite sprite;
 		public RenderLayer layer;
 		public int x;
@@ -2304,15 +2354,10 @@ public class GameScreen implements Screen, InputProcessor, GestureListener
 
 		public int comparisonVal;
 
-		public RenderSprite()
-		{
-			super(0);
-		}
-
 		public RenderSprite set( Sprite sprite, Color colour, int x, int y, int width, int height, int offsetx, int offsety, RenderLayer layer, int index )
 		{
 			this.sprite = sprite;
-			this.colour.set( colour );
+			this.colour = colour.toFloatBits();
 			this.x = x;
 			this.y = y;
 			this.width = width;
@@ -2350,6 +2395,88 @@ public class GameScreen implements Screen, InputProcessor, GestureListener
 		}
 	}
 
+	/**
+	 * Render sprites queued in submission order, then radix sorted on comparisonVal in four byte wide passes. Passes
+	 * where every key has the same byte are skipped, which for a level sized key space is usually the top one.
+	 */
+	public static class RenderQueue
+	{
+		public int size;
+
+		private RenderSprite[] sprites = new RenderSprite[1024];
+		private RenderSprite[] swapSprites = new RenderSprite[1024];
+		private int[] keys = new int[1024];
+		private int[] swapKeys = new int[1024];
+		private final int[] counts = new int[256];
+
+		public void add( RenderSprite rs )
+		{
+			if ( size == sprites.length )
+			{
+				sprites = Arrays.copyOf( sprites, size * 2 );
+				swapSprites = new RenderSprite[size * 2];
+				keys = Arrays.copyOf( keys, size * 2 );
+				swapKeys = new int[size * 2];
+			}
+
+			// flip the sign bit so negative keys from off level sprites order before the rest when compared unsigned
+			keys[size] = rs.comparisonVal ^ 0x80000000;
+			sprites[size] = rs;
+			size++;
+		}
+
+		public RenderSprite get( int i )
+		{
+			return sprites[i];
+		}
+
+		public void sort()
+		{
+			if ( size < 2 ) { return; }
+
+			for ( int shift = 0; shift < 32; shift += 8 )
+			{
+				Arrays.fill( counts, 0 );
+				for ( int i = 0; i < size; i++ )
+				{
+					counts[( keys[i] >>> shift ) & 0xFF]++;
+				}
+
+				if ( counts[( keys[0] >>> shift ) & 0xFF] == size ) { continue; }
+
+				int total = 0;
+				for ( int i = 0; i < 256; i++ )
+				{
+					int count = counts[i];
+					counts[i] = total;
+					total += count;
+				}
+
+				for ( int i = 0; i < size; i++ )
+				{
+					int dst = counts[( keys[i] >>> shift ) & 0xFF]++;
+					swapKeys[dst] = keys[i];
+					swapSprites[dst] = sprites[i];
+				}
+
+				int[] tempKeys = keys;
+				keys = swapKeys;
+				swapKeys = tempKeys;
+
+				RenderSprite[] tempSprites = sprites;
+				sprites = swapSprites;
+				swapSprites = tempSprites;
+			}
+		}
+
+		public void clear()
+		{
+			Arrays.fill( sprites, 0, size, null );
+			Arrays.fill( swapSprites, 0, size, null );
+			size = 0;
+		}
+	}
+
 	public static class GrayscaleShader
 	{
 		static String vertexShader = "attribute vec4 a_position;\n"
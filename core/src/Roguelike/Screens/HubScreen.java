@@ -935,6 +935,9 @@ public class HubScreen implements Screen, InputProcessor
 		stage.getViewport().setScreenHeight( Global.ScreenSize[1] );
 
 		Global.changeBGM( "Voice Over Under" );
+
+		// get the levels ready while the player looks around
+		Global.pregenerateMissions();
 	}
 
 	@Override
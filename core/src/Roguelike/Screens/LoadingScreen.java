@@ -6,6 +6,7 @@ import Roguelike.Quests.Quest;
 import Roguelike.RoguelikeGame;
 import Roguelike.RoguelikeGame.ScreenEnum;
 import Roguelike.DungeonGeneration.AbstractDungeonGenerator;
+import Roguelike.DungeonGeneration.GenerationTask;
 import Roguelike.Entity.GameEntity;
 import Roguelike.Levels.Level;
 import Roguelike.Save.SaveLevel;
@@ -106,12 +107,16 @@ public class LoadingScreen implements Screen
 
 		if ( complete )
 		{
-			onComplete( generator.getLevel() );
+			onComplete( task.getLevel() );
 		}
 
-		complete = generator.generate();
-		percent = generator.percent;
-		generationString = generator.generationText;
+		// the worker runs the grid stages, only building the level happens here on the GL thread
+		complete = task.poll();
+		if ( complete )
+		{
+			percent = task.getPercent();
+			generationString = task.getGenerationText();
+		}
 
 		// limit fps
 		sleep( Global.FPS );
@@ -212,6 +217,12 @@ public class LoadingScreen implements Screen
 	}
 
 	public boolean set( SaveLevel level, Quest quest, GameEntity player, Object travelData, PostGenerateEvent event )
+	{
+		return set( level, quest, player, travelData, event, null );
+	}
+
+	// Continues a task that was started ahead of time for this level, or starts a new one when task is null
+	public boolean set( SaveLevel level, Quest quest, GameEntity player, Object travelData, PostGenerateEvent event, GenerationTask task )
 	{
 		this.player = player;
 		this.travelData = travelData;
@@ -219,10 +230,20 @@ public class LoadingScreen implements Screen
 		this.level = level;
 		this.quest = quest;
 
-		generator = AbstractDungeonGenerator.load( level, quest );
+		if ( task == null )
+		{
+			task = new GenerationTask( AbstractDungeonGenerator.load( level, quest ) );
+			task.setProgressListener( progressListener );
+			task.start();
+		}
+		else
+		{
+			task.setProgressListener( progressListener );
+		}
+		this.task = task;
 
-		this.percent = generator.percent;
-		this.generationString = generator.generationText;
+		this.percent = task.getPercent();
+		this.generationString = task.getGenerationText();
 		this.complete = false;
 		doCreate = true;
 		return true;
@@ -241,15 +262,25 @@ public class LoadingScreen implements Screen
 
 	boolean doCreate = false;
 	boolean complete;
-	String generationString;
-	int percent = 0;
+	volatile String generationString;
+	volatile int percent = 0;
 	SaveLevel level;
 	Quest quest;
 	GameEntity player;
 	Object travelData;
-	AbstractDungeonGenerator generator;
+	GenerationTask task;
 	PostGenerateEvent event;
 
+	final GenerationTask.ProgressListener progressListener = new GenerationTask.ProgressListener()
+	{
+		@Override
+		public void onProgress( int percent, String text )
+		{
+			LoadingScreen.this.percent = percent;
+			generationString = text;
+		}
+	};
+
 	Texture background;
 
 	public static abstract class PostGenerateEvent
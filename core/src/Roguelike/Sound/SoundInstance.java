@@ -4,10 +4,12 @@ import java.io.IOException;
 import java.util.HashSet;
 
 import Roguelike.AssetManager;
+import Roguelike.Entity.EnvironmentEntity;
 import Roguelike.Entity.ActivationAction.ActivationActionGroup;
 import Roguelike.Global;
 import Roguelike.Global.Passability;
-import Roguelike.Pathfinding.AStarPathfind;
+import Roguelike.Levels.Level;
+import Roguelike.Pathfinding.FloodFill;
 import Roguelike.Tiles.GameTile;
 import Roguelike.Tiles.Point;
 import Roguelike.Util.EnumBitflag;
@@ -94,72 +96,67 @@ public class SoundInstance
 
 		if ( key != null )
 		{
-			for ( int x = tile.x - range; x < tile.x + range; x++ )
+			Level level = tile.level;
+
+			// a searched path held the start and the end twice, so a tile was audible when its distance + 2 was under the range
+			FloodFill flood = level.floodFill;
+			flood.flood( level.getGrid(), tile.x, tile.y, maxAudibleDist - 3, Global.CanMoveDiagonal, SoundPassability, null );
+
+			Array<EnvironmentEntity> hearing = null;
+
+			for ( int i = 0; i < flood.getNumReached(); i++ )
 			{
-				for ( int y = tile.y - range; y < tile.y + range; y++ )
+				int x = flood.getReachedX( i );
+				int y = flood.getReachedY( i );
+				int pathLength = flood.getDistance( x, y ) + 2;
+
+				GameTile t = level.getGameTile( x, y );
+
+				if ( t.entity != null )
 				{
-					if ( x >= 0 && x < tile.level.width && y >= 0 && y < tile.level.height )
+					if ( t.entity == level.player )
+					{
+						playerDist = pathLength;
+					}
+					else if ( tile.entity != null && tile.entity.isAllies( shoutFaction ) )
 					{
-						GameTile t = tile.level.getGameTile( x, y );
+						t.entity.AI.setData( key, value );
+					}
+					else
+					{
+						t.entity.AI.setData( "EnemyPos", shoutSource );
+					}
+				}
 
-						if ( t.entity != null )
+				if ( t.environmentEntity != null && t.environmentEntity.onHearActions.size > 0 )
+				{
+					for ( ActivationActionGroup group : t.environmentEntity.onHearActions )
+					{
+						if ( group.enabled )
 						{
-							AStarPathfind astar = new AStarPathfind( tile.level.getGrid(), tile.x, tile.y, x, y, Global.CanMoveDiagonal, false, 1, SoundPassability, null );
-							Array<Point> path = astar.getPath();
-
-							if ( path != null && path.size < maxAudibleDist )
+							if ( hearing == null )
 							{
-								if ( t.entity == tile.level.player )
-								{
-									playerDist = path.size;
-								}
-								else if ( tile.entity != null && tile.entity.isAllies( shoutFaction ) )
-								{
-									t.entity.AI.setData( key, value );
-								}
-								else
-								{
-									t.entity.AI.setData( "EnemyPos", shoutSource );
-								}
+								hearing = new Array<EnvironmentEntity>();
 							}
 
-							if ( path != null )
+							if ( !hearing.contains( t.environmentEntity, true ) )
 							{
-								Global.PointPool.freeAll( path );
+								hearing.add( t.environmentEntity );
 							}
+							break;
 						}
+					}
+				}
+			}
 
-						if ( t.environmentEntity != null && t.environmentEntity.onHearActions.size > 0 )
-						{
-							boolean hasActive = false;
-							for ( ActivationActionGroup group : t.environmentEntity.onHearActions )
-							{
-								if (group.enabled)
-								{
-									hasActive = true;
-									break;
-								}
-							}
-
-							if (hasActive)
-							{
-								AStarPathfind astar = new AStarPathfind( tile.level.getGrid(), tile.x, tile.y, x, y, true, false, 1, SoundPassability, null );
-								Array<Point> path = astar.getPath();
-
-								if ( path != null && path.size < maxAudibleDist )
-								{
-									for ( ActivationActionGroup group : t.environmentEntity.onHearActions )
-									{
-										group.activate( t.environmentEntity, null, 1 );
-									}
-								}
-
-								if ( path != null )
-								{
-									Global.PointPool.freeAll( path );
-								}
-							}
-						}
+			// activated after the flood as the actions can change the level or play sounds of their own
+			if ( hearing != null )
+			{
+				for ( EnvironmentEntity entity : hearing )
+				{
+					for ( ActivationActionGroup group : entity.onHearActions )
+					{
+						group.activate( entity, null, 1 );
 					}
 				}
 			}
@@ -192,7 +189,7 @@ public class SoundInstance
 
 	private static final ObjectMap<String, Element> soundMap = new ObjectMap<String, Element>(  );
 	private static boolean loaded = false;
-	public static SoundInstance getSound( String name )
+	public static synchronized SoundInstance getSound( String name )
 	{
 		if ( !loaded )
 		{
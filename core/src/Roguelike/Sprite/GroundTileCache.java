@@ -0,0 +1,272 @@
+package Roguelike.Sprite;
+
+import Roguelike.Global.Direction;
+import Roguelike.Levels.Level;
+import Roguelike.Sprite.Sprite.AnimationMode;
+import Roguelike.Tiles.GameTile;
+import Roguelike.Util.EnumBitflag;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.FloatArray;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.NumberUtils;
+
+/**
+ * Pre-batched vertex data for the static ground sprites of a level, split into square chunks of CHUNK_SIZE tiles.
+ * Every frame the screen reports what each on screen tile would draw from the cache through setTile, and a chunk is
+ * only rebuilt when one of its tiles reports a different sprite set, light or tiling. Unchanged floors and walls then
+ * cost one draw per chunk and texture rather than a queued sprite each.
+ */
+public final class GroundTileCache
+{
+	// ----------------------------------------------------------------------
+	public static final int CHUNK_SIZE = 16;
+
+	// the sprite mask bit for the tile's tiling sprite, tile sprites use the bits below it
+	public static final int TILING_SPRITE_BIT = 30;
+
+	// ----------------------------------------------------------------------
+	private Level level;
+	private int tileSize;
+
+	private int chunksX;
+	private int chunksY;
+	private Chunk[] chunks;
+
+	// per tile state the chunks were built from
+	private int[] cellSprites;
+	private int[] cellLight;
+	private int[] cellTiling;
+
+	// ----------------------------------------------------------------------
+	private final EnumBitflag<Direction> tempBitflag = new EnumBitflag<Direction>();
+	private final Color tempColour = new Color();
+	private final Matrix4 oldTransform = new Matrix4();
+	private final Matrix4 transform = new Matrix4();
+
+	// ----------------------------------------------------------------------
+	/**
+	 * Whether the sprite draws the same quad every frame, and so can live in the cache.
+	 */
+	public static boolean isStatic( Sprite sprite )
+	{
+		if ( sprite.drawActualSize || sprite.spriteAnimation != null || sprite.renderDelay > 0 || sprite.rotation != 0 ) { return false; }
+		if ( sprite.baseScale[0] != 1 || sprite.baseScale[1] != 1 ) { return false; }
+
+		AnimationMode mode = sprite.animationState.mode;
+		return mode == AnimationMode.NONE || ( mode == AnimationMode.TEXTURE && sprite.textures.size == 1 );
+	}
+
+	// ----------------------------------------------------------------------
+	/**
+	 * Called at the start of every frame. Throws away everything if the level or tile size has changed.
+	 */
+	public void begin( Level level, int tileSize )
+	{
+		if ( level == this.level && tileSize == this.tileSize ) { return; }
+
+		this.level = level;
+		this.tileSize = tileSize;
+
+		chunksX = ( level.width + CHUNK_SIZE - 1 ) / CHUNK_SIZE;
+		chunksY = ( level.height + CHUNK_SIZE - 1 ) / CHUNK_SIZE;
+		chunks = new Chunk[chunksX * chunksY];
+		for ( int i = 0; i < chunks.length; i++ )
+		{
+			chunks[i] = new Chunk();
+		}
+
+		cellSprites = new int[level.width * level.height];
+		cellLight = new int[level.width * level.height];
+		cellTiling = new int[level.width * level.height];
+	}
+
+	// ----------------------------------------------------------------------
+	/**
+	 * Records what the tile at (x, y) draws from the cache this frame. spriteMask has bit i set for each of the tile's
+	 * sprites, and TILING_SPRITE_BIT for its tiling sprite, that should be drawn with the packed light colour.
+	 */
+	public void setTile( int x, int y, int spriteMask, float light, int tilingMask )
+	{
+		int cell = x * level.height + y;
+		int lightBits = NumberUtils.floatToRawIntBits( light );
+
+		if ( cellSprites[cell] != spriteMask || ( spriteMask != 0 && ( cellLight[cell] != lightBits || cellTiling[cell] != tilingMask ) ) )
+		{
+			cellSprites[cell] = spriteMask;
+			cellLight[cell] = lightBits;
+			cellTiling[cell] = tilingMask;
+
+			chunks[( x / CHUNK_SIZE ) * chunksY + y / CHUNK_SIZE].dirty = true;
+		}
+	}
+
+	// ----------------------------------------------------------------------
+	/**
+	 * Draws every chunk on screen, rebuilding any that have changed. The batch must already have begun.
+	 */
+	public void render( Batch batch, int offsetx, int offsety, int screenWidth, int screenHeight )
+	{
+		oldTransform.set( batch.getTransformMatrix() );
+		transform.set( oldTransform ).translate( offsetx, offsety, 0 );
+		batch.setTransformMatrix( transform );
+
+		int chunkPixels = CHUNK_SIZE * tileSize;
+
+		// same order as the render queue, top rows first and right to left
+		for ( int cy = chunksY - 1; cy >= 0; cy-- )
+		{
+			for ( int cx = chunksX - 1; cx >= 0; cx-- )
+			{
+				int left = cx * chunkPixels + offsetx;
+				int bottom = cy * chunkPixels + offsety;
+				if ( left > screenWidth || bottom > screenHeight ) { continue; }
+
+				Chunk chunk = chunks[cx * chunksY + cy];
+				if ( chunk.dirty )
+				{
+					rebuild( chunk, cx, cy );
+				}
+
+				// sprites larger than a tile can hang past the chunk
+				if ( chunk.maxX + offsetx < 0 || chunk.maxY + offsety < 0 ) { continue; }
+
+				chunk.render( batch );
+			}
+		}
+
+		batch.setTransformMatrix( oldTransform );
+	}
+
+	// ----------------------------------------------------------------------
+	private void rebuild( Chunk chunk, int cx, int cy )
+	{
+		chunk.clear();
+
+		int minX = cx * CHUNK_SIZE;
+		int minY = cy * CHUNK_SIZE;
+		int maxX = Math.min( level.width, minX + CHUNK_SIZE ) - 1;
+		int maxY = Math.min( level.height, minY + CHUNK_SIZE ) - 1;
+
+		for ( int y = maxY; y >= minY; y-- )
+		{
+			for ( int x = maxX; x >= minX; x-- )
+			{
+				int cell = x * level.height + y;
+				int mask = cellSprites[cell];
+				if ( mask == 0 )
+				{
+					continue;
+				}
+
+				GameTile tile = level.getGameTile( x, y );
+				float light = NumberUtils.intBitsToFloat( cellLight[cell] );
+
+				Array<Sprite> sprites = tile.getSprites();
+				for ( int i = 0; i < sprites.size && i < TILING_SPRITE_BIT; i++ )
+				{
+					if ( ( mask & ( 1 << i ) ) != 0 )
+					{
+						addSprite( chunk, sprites.get( i ), x, y, light );
+					}
+				}
+
+				if ( ( mask & ( 1 << TILING_SPRITE_BIT ) ) != 0 )
+				{
+					tempBitflag.setBitFlag( cellTiling[cell] );
+					addSprite( chunk, tile.getTilingSprite().getSprite( tempBitflag ), x, y, light );
+				}
+			}
+		}
+
+		chunk.dirty = false;
+	}
+
+	// ----------------------------------------------------------------------
+	private void addSprite( Chunk chunk, Sprite sprite, int x, int y, float light )
+	{
+		if ( sprite.colour.a == 0 ) { return; }
+
+		float colour = light;
+		if ( sprite.colour.r != 1 || sprite.colour.g != 1 || sprite.colour.b != 1 || sprite.colour.a != 1 )
+		{
+			Color.abgr8888ToColor( tempColour, light );
+			colour = tempColour.mul( sprite.colour ).toFloatBits();
+		}
+
+		TextureRegion region = sprite.textures.items[ sprite.animationState.texIndex ];
+
+		float x1 = x * tileSize;
+		float y1 = y * tileSize;
+		float x2 = x1 + tileSize * sprite.size[ 0 ];
+		float y2 = y1 + tileSize * sprite.size[ 1 ];
+
+		chunk.add( region, x1, y1, x2, y2, colour );
+	}
+
+	// ----------------------------------------------------------------------
+	private static final class Chunk
+	{
+		public boolean dirty = true;
+		public float maxX;
+		public float maxY;
+
+		private final FloatArray vertices = new FloatArray();
+		private final Array<Texture> textures = new Array<Texture>();
+		private final IntArray runEnds = new IntArray();
+
+		public void clear()
+		{
+			vertices.clear();
+			textures.clear();
+			runEnds.clear();
+			maxX = 0;
+			maxY = 0;
+		}
+
+		public void add( TextureRegion region, float x1, float y1, float x2, float y2, float colour )
+		{
+			Texture texture = region.getTexture();
+			if ( textures.size == 0 || textures.peek() != texture )
+			{
+				textures.add( texture );
+				runEnds.add( vertices.size );
+			}
+
+			float u = region.getU();
+			float v = region.getV();
+			float u2 = region.getU2();
+			float v2 = region.getV2();
+
+			// same vertex layout as SpriteBatch
+			float[] items = vertices.ensureCapacity( 20 );
+			int i = vertices.size;
+			items[i++] = x1; items[i++] = y1; items[i++] = colour; items[i++] = u; items[i++] = v2;
+			items[i++] = x1; items[i++] = y2; items[i++] = colour; items[i++] = u; items[i++] = v;
+			items[i++] = x2; items[i++] = y2; items[i++] = colour; items[i++] = u2; items[i++] = v;
+			items[i++] = x2; items[i++] = y1; items[i++] = colour; items[i++] = u2; items[i++] = v2;
+			vertices.size = i;
+
+			runEnds.items[runEnds.size - 1] = i;
+
+			maxX = Math.max( maxX, x2 );
+			maxY = Math.max( maxY, y2 );
+		}
+
+		public void render( Batch batch )
+		{
+			int start = 0;
+			for ( int i = 0; i < textures.size; i++ )
+			{
+				int end = runEnds.get( i );
+				batch.draw( textures.get( i ), vertices.items, start, end - start );
+				start = end;
+			}
+		}
+	}
+}
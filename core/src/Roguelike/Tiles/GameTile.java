@@ -16,23 +16,15 @@ import Roguelike.Sprite.SpriteEffect;
 import Roguelike.Sprite.TilingSprite;
 import Roguelike.Util.EnumBitflag;
 import Roguelike.Util.FastEnumMap;
-import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.utils.Array;
 
-import java.util.HashMap;
-import java.util.Map;
-
 public final class GameTile implements PathfindingTile
 {
-	private static final Color tempColour = new Color();
 	public int x;
 	public int y;
 
 	public TileData tileData;
-	public HashMap<Light, LightData> lightMap = new HashMap<Light, LightData>();
-	public Color ambientColour = new Color();
-	public Color light = new Color();
 	public GameEntity entity;
 	public GameEntity prevEntity;
 	public EnvironmentEntity environmentEntity;
@@ -44,7 +36,6 @@ public final class GameTile implements PathfindingTile
 	public Array<Item> items = new Array<Item>( false, 16 );
 	public Array<String> metaValue = new Array<String>(  );
 	public boolean visible;
-	public boolean tempVisible;
 	public boolean seen;
 
 	public EnumBitflag<Global.Direction> seenBitflag = new EnumBitflag<Global.Direction>( );
@@ -81,8 +72,29 @@ public final class GameTile implements PathfindingTile
 			spriteGroup = tileData.spriteGroups.first();
 		}
 		lightObj = spriteGroup.light;
+	}
+
+	// Restores a tile whose sprite group has already been picked, such as one read from a level snapshot
+	public GameTile( int x, int y, Level level, TileData tileData, int spriteGroupIndex )
+	{
+		this.x = x;
+		this.y = y;
+		this.level = level;
 
-		light = new Color( Color.WHITE );
+		this.tileData = tileData;
+
+		spriteGroup = tileData.spriteGroups.get( Math.min( spriteGroupIndex, tileData.spriteGroups.size - 1 ) );
+		lightObj = spriteGroup.light;
+	}
+
+	public void addSpriteEffect( SpriteEffect effect )
+	{
+		spriteEffects.add( effect );
+
+		if ( level != null )
+		{
+			level.notifySpriteEffect( this );
+		}
 	}
 
 	public float getMaxSpriteEffectDuration()
@@ -132,8 +144,12 @@ public final class GameTile implements PathfindingTile
 				GameTile tile = level.Grid[ this.x + x ][ this.y + y ];
 				tile.environmentEntity = entity;
 				entity.tile[ x ][ y ] = tile;
+				level.invalidatePassability( tile.x, tile.y );
+				level.invalidateTiling( tile.x, tile.y );
 			}
 		}
+
+		level.registerEnvironmentEntity( entity );
 	}
 
 	public final void processFieldEffectsForEntity( Entity e, float cost )
@@ -157,6 +173,11 @@ public final class GameTile implements PathfindingTile
 		clearField( field.layer );
 		fields.put( field.layer, field );
 		field.tile = this;
+		level.registerField( field );
+		level.invalidatePassability( x, y );
+
+		field.tilingGroup = field.getSpriteGroup();
+		level.invalidateTiling( x, y );
 
 		hasFields = fields.size > 0;
 		updateFieldLightFlag();
@@ -169,10 +190,28 @@ public final class GameTile implements PathfindingTile
 			Field field = fields.get( layer );
 			if ( field != null )
 			{
+				level.unregisterField( field );
 				field.tile = null;
 			}
 
 			fields.remove( layer );
+			level.invalidatePassability( x, y );
+			level.invalidateTiling( x, y );
+
+			hasFields = fields.size > 0;
+			updateFieldLightFlag();
+		}
+	}
+
+	// Removes the field from this tile but leaves field.tile set, so an interaction can still use where it came from
+	public final void detachField( FieldLayer layer )
+	{
+		if ( fields.containsKey( layer ) )
+		{
+			level.unregisterField( fields.get( layer ) );
+			fields.remove( layer );
+			level.invalidatePassability( x, y );
+			level.invalidateTiling( x, y );
 
 			hasFields = fields.size > 0;
 			updateFieldLightFlag();
@@ -218,6 +257,8 @@ public final class GameTile implements PathfindingTile
 			}
 		}
 
+		level.registerEntity( obj );
+
 		if ( oldTile != null ) { return getPosDiff( oldTile ); }
 
 		return new int[]{ 0, 0 };
@@ -301,51 +342,4 @@ public final class GameTile implements PathfindingTile
 
 		return 0;
 	}
-
-	public void setLight( Light light, float intensity, Color colour )
-	{
-		lightMap.put( light, Global.LightDataPool.obtain().set( intensity, colour ) );
-	}
-
-	public void clearLight( Light light )
-	{
-		LightData data = lightMap.get( light );
-		Global.LightDataPool.free( data );
-		lightMap.remove( light );
-	}
-
-	public void composeLight()
-	{
-		light.set( ambientColour );
-
-		for ( Map.Entry<Light, LightData> pair : lightMap.entrySet() )
-		{
-			tempColour.set( pair.getValue().colour );
-
-			tempColour.mul( tempColour.a );
-			tempColour.a = 1;
-
-			tempColour.mul( pair.getValue().intensity );
-			light.add( tempColour );
-		}
-	}
-
-	public static class LightData
-	{
-		public float intensity;
-		public Color colour;
-
-		public LightData()
-		{
-
-		}
-
-		public LightData set( float intensity, Color colour )
-		{
-			this.intensity = intensity;
-			this.colour = colour;
-
-			return this;
-		}
-	}
 }
@@ -24,6 +24,9 @@ public class TileData
 	public boolean canFeature = true;
 	public boolean canSpawn = true;
 
+	// the xml this was parsed from, null for tile data built in code
+	public Element source;
+
 	private TileData()
 	{
 
@@ -39,6 +42,7 @@ public class TileData
 	public static TileData parse( Element xml )
 	{
 		TileData data = new TileData();
+		data.source = xml;
 
 		// Load single group
 		{
@@ -0,0 +1,44 @@
+package Roguelike.Util;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Pool;
+
+/**
+ * A pool that can be shared between the game thread and background work such as dungeon generation.
+ */
+public abstract class SynchronizedPool<T> extends Pool<T>
+{
+	// ----------------------------------------------------------------------
+	public SynchronizedPool( int initialCapacity, int max )
+	{
+		super( initialCapacity, max );
+	}
+
+	// ----------------------------------------------------------------------
+	@Override
+	public synchronized T obtain()
+	{
+		return super.obtain();
+	}
+
+	// ----------------------------------------------------------------------
+	@Override
+	public synchronized void free( T object )
+	{
+		super.free( object );
+	}
+
+	// ----------------------------------------------------------------------
+	@Override
+	public synchronized void freeAll( Array<T> objects )
+	{
+		super.freeAll( objects );
+	}
+
+	// ----------------------------------------------------------------------
+	@Override
+	public synchronized void clear()
+	{
+		super.clear();
+	}
+}
@@ -0,0 +1,147 @@
+package Roguelike.Util;
+
+import java.util.Arrays;
+
+/**
+ * A fixed size grid of bits, one per tile, for constant time membership tests on sets of tiles such as a field of view.
+ * Tiles outside the grid are never set.
+ */
+public final class TileBitset
+{
+	// ----------------------------------------------------------------------
+	private long[] words = new long[0];
+	private int numWords;
+	private int width;
+	private int height;
+
+	// ----------------------------------------------------------------------
+	public TileBitset()
+	{
+
+	}
+
+	// ----------------------------------------------------------------------
+	public TileBitset( int width, int height )
+	{
+		setSize( width, height );
+	}
+
+	// ----------------------------------------------------------------------
+	/**
+	 * Resizes to the given grid and clears every bit.
+	 */
+	public void setSize( int width, int height )
+	{
+		this.width = width;
+		this.height = height;
+
+		numWords = ( width * height + 63 ) >>> 6;
+		if ( words.length < numWords )
+		{
+			words = new long[numWords];
+		}
+		else
+		{
+			Arrays.fill( words, 0, numWords, 0 );
+		}
+	}
+
+	// ----------------------------------------------------------------------
+	public int getWidth()
+	{
+		return width;
+	}
+
+	// ----------------------------------------------------------------------
+	public int getHeight()
+	{
+		return height;
+	}
+
+	// ----------------------------------------------------------------------
+	public void clear()
+	{
+		Arrays.fill( words, 0, numWords, 0 );
+	}
+
+	// ----------------------------------------------------------------------
+	public boolean get( int x, int y )
+	{
+		if ( x < 0 || y < 0 || x >= width || y >= height ) { return false; }
+
+		int index = x * height + y;
+		return ( words[index >>> 6] & ( 1L << index ) ) != 0;
+	}
+
+	// ----------------------------------------------------------------------
+	public void set( int x, int y )
+	{
+		if ( x < 0 || y < 0 || x >= width || y >= height ) { return; }
+
+		int index = x * height + y;
+		words[index >>> 6] |= 1L << index;
+	}
+
+	// ----------------------------------------------------------------------
+	public void clear( int x, int y )
+	{
+		if ( x < 0 || y < 0 || x >= width || y >= height ) { return; }
+
+		int index = x * height + y;
+		words[index >>> 6] &= ~( 1L << index );
+	}
+
+	// ----------------------------------------------------------------------
+	public void set( TileBitset other )
+	{
+		setSize( other.width, other.height );
+		System.arraycopy( other.words, 0, words, 0, numWords );
+	}
+
+	// ----------------------------------------------------------------------
+	/**
+	 * Keeps only the tiles also set in other. Both sets must be the same size.
+	 */
+	public void and( TileBitset other )
+	{
+		checkSize( other );
+
+		for ( int i = 0; i < numWords; i++ )
+		{
+			words[i] &= other.words[i];
+		}
+	}
+
+	// ----------------------------------------------------------------------
+	/**
+	 * Adds every tile set in other. Both sets must be the same size.
+	 */
+	public void or( TileBitset other )
+	{
+		checkSize( other );
+
+		for ( int i = 0; i < numWords; i++ )
+		{
+			words[i] |= other.words[i];
+		}
+	}
+
+	// ----------------------------------------------------------------------
+	public boolean intersects( TileBitset other )
+	{
+		checkSize( other );
+
+		for ( int i = 0; i < numWords; i++ )
+		{
+			if ( ( words[i] & other.words[i] ) != 0 ) { return true; }
+		}
+
+		return false;
+	}
+
+	// ----------------------------------------------------------------------
+	private void checkSize( TileBitset other )
+	{
+		if ( other.width != width || other.height != height ) { throw new IllegalArgumentException( "Tile bitsets differ in size: " + width + "x" + height + " and " + other.width + "x" + other.height ); }
+	}
+}
@@ -0,0 +1,146 @@
+package Roguelike.Util;
+
+import java.util.HashMap;
+
+import Roguelike.Global.Statistic;
+
+import com.badlogic.gdx.utils.Array;
+
+/**
+ * Primitive replacement for the HashMap<String, Integer> variable maps. Every variable name is interned once into a global
+ * slot table, with the statistics occupying the slots matching their ordinal. Clearing is O(1) through a generation stamp.
+ */
+public final class VariableBlock
+{
+	// ----------------------------------------------------------------------
+	private static final HashMap<String, Integer> slotLookup = new HashMap<String, Integer>();
+	private static final Array<String> slotNames = new Array<String>();
+
+	public static final int HP;
+	public static final int MAXHP;
+
+	static
+	{
+		for ( Statistic stat : Statistic.values() )
+		{
+			getSlot( stat.toString().toLowerCase() );
+		}
+
+		HP = getSlot( "hp" );
+		MAXHP = getSlot( "maxhp" );
+	}
+
+	// ----------------------------------------------------------------------
+	private int[] values = new int[32];
+	private int[] stamps = new int[32];
+	private int generation = 1;
+
+	// ----------------------------------------------------------------------
+	public static synchronized int getSlot( String name )
+	{
+		Integer slot = slotLookup.get( name );
+
+		if ( slot == null )
+		{
+			slot = slotNames.size;
+			slotNames.add( name );
+			slotLookup.put( name, slot );
+		}
+
+		return slot;
+	}
+
+	// ----------------------------------------------------------------------
+	public static synchronized String getName( int slot )
+	{
+		return slotNames.get( slot );
+	}
+
+	// ----------------------------------------------------------------------
+	public static synchronized int getNumSlots()
+	{
+		return slotNames.size;
+	}
+
+	// ----------------------------------------------------------------------
+	public void clear()
+	{
+		generation++;
+	}
+
+	// ----------------------------------------------------------------------
+	public boolean contains( int slot )
+	{
+		return slot < stamps.length && stamps[slot] == generation;
+	}
+
+	// ----------------------------------------------------------------------
+	public int get( int slot )
+	{
+		return contains( slot ) ? values[slot] : 0;
+	}
+
+	// ----------------------------------------------------------------------
+	public int get( Statistic stat )
+	{
+		return get( stat.ordinal() );
+	}
+
+	// ----------------------------------------------------------------------
+	public int get( String name )
+	{
+		return get( getSlot( name ) );
+	}
+
+	// ----------------------------------------------------------------------
+	public void put( int slot, int value )
+	{
+		if ( slot >= values.length )
+		{
+			int newSize = Math.max( slot + 1, values.length * 2 );
+
+			int[] newValues = new int[newSize];
+			System.arraycopy( values, 0, newValues, 0, values.length );
+			values = newValues;
+
+			int[] newStamps = new int[newSize];
+			System.arraycopy( stamps, 0, newStamps, 0, stamps.length );
+			stamps = newStamps;
+		}
+
+		values[slot] = value;
+		stamps[slot] = generation;
+	}
+
+	// ----------------------------------------------------------------------
+	public void put( Statistic stat, int value )
+	{
+		put( stat.ordinal(), value );
+	}
+
+	// ----------------------------------------------------------------------
+	public void put( String name, int value )
+	{
+		put( getSlot( name ), value );
+	}
+
+	// ----------------------------------------------------------------------
+	public void add( Statistic stat, int value )
+	{
+		put( stat.ordinal(), get( stat.ordinal() ) + value );
+	}
+
+	// ----------------------------------------------------------------------
+	public void toMap( HashMap<String, Integer> map )
+	{
+		map.clear();
+
+		for ( int i = 0; i < stamps.length; i++ )
+		{
+			if ( stamps[i] == generation )
+			{
+				map.put( getName( i ), values[i] );
+			}
+		}
+	}
+}
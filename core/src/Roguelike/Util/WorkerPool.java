@@ -0,0 +1,94 @@
+package Roguelike.Util;
+
+import java.util.ArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.badlogic.gdx.utils.Array;
+
+/**
+ * A fixed pool of daemon threads for splitting work that only reads game state across cores. The calling thread runs
+ * one of the jobs itself and then blocks until every other job has finished, so jobs may read anything the game owns
+ * as long as they write only to state of their own. Only the game thread submits work.
+ */
+public final class WorkerPool
+{
+	// ----------------------------------------------------------------------
+	public static final int NumThreads = Math.max( 1, Runtime.getRuntime().availableProcessors() );
+
+	// ----------------------------------------------------------------------
+	private static ExecutorService executor;
+	private static final ArrayList<Future<?>> futures = new ArrayList<Future<?>>();
+
+	// ----------------------------------------------------------------------
+	public static void runAll( Array<? extends Runnable> jobs )
+	{
+		if ( jobs.size == 0 ) { return; }
+
+		if ( jobs.size == 1 || NumThreads == 1 )
+		{
+			for ( int i = 0; i < jobs.size; i++ )
+			{
+				jobs.get( i ).run();
+			}
+			return;
+		}
+
+		ExecutorService executor = getExecutor();
+
+		futures.clear();
+		for ( int i = 1; i < jobs.size; i++ )
+		{
+			futures.add( executor.submit( jobs.get( i ) ) );
+		}
+
+		jobs.get( 0 ).run();
+
+		try
+		{
+			for ( int i = 0; i < futures.size(); i++ )
+			{
+				futures.get( i ).get();
+			}
+		}
+		catch ( InterruptedException e )
+		{
+			Thread.currentThread().interrupt();
+			throw new RuntimeException( e );
+		}
+		catch ( ExecutionException e )
+		{
+			throw new RuntimeException( e.getCause() );
+		}
+		finally
+		{
+			futures.clear();
+		}
+	}
+
+	// ----------------------------------------------------------------------
+	private static synchronized ExecutorService getExecutor()
+	{
+		if ( executor == null )
+		{
+			executor = Executors.newFixedThreadPool( NumThreads - 1, new ThreadFactory()
+			{
+				private final AtomicInteger count = new AtomicInteger();
+
+				@Override
+				public Thread newThread( Runnable r )
+				{
+					Thread thread = new Thread( r, "Worker " + count.getAndIncrement() );
+					thread.setDaemon( true );
+					return thread;
+				}
+			} );
+		}
+
+		return executor;
+	}
+}
@@ -24,6 +24,11 @@ public class ChanceFunction extends Function
 		this.ran = ran;
 	}
 
+	public void setRandom( Random ran )
+	{
+		this.ran = ran;
+	}
+
 	@Override
 	public double apply( double... arg0 )
 	{
@@ -2,6 +2,8 @@ package exp4j.Functions;
 
 import com.badlogic.gdx.math.MathUtils;
 
+import java.util.Map;
+
 import net.objecthunter.exp4j.ExpressionBuilder;
 import net.objecthunter.exp4j.function.Function;
 
@@ -199,4 +201,20 @@ public class MathUtilFunctions
 		expB.function(max4);
 		expB.function(max5);
 	}
+
+	public static void applyFunctions(Map<String, Function> functions)
+	{
+		functions.put(round.getName(), round);
+		functions.put(clamp.getName(), clamp);
+		
+		functions.put(min.getName(), min);
+		functions.put(min3.getName(), min3);
+		functions.put(min4.getName(), min4);
+		functions.put(min5.getName(), min5);
+		
+		functions.put(max.getName(), max);
+		functions.put(max3.getName(), max3);
+		functions.put(max4.getName(), max4);
+		functions.put(max5.getName(), max5);
+	}
 }
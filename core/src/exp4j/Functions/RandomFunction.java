@@ -22,6 +22,11 @@ public class RandomFunction extends Function
 		this.ran = ran;
 	}
 
+	public void setRandom( Random ran )
+	{
+		this.ran = ran;
+	}
+
 	@Override
 	public double apply( double... arg0 )
 	{
@@ -0,0 +1,312 @@
+package exp4j.Helpers;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import Roguelike.Util.VariableBlock;
+import net.objecthunter.exp4j.function.Function;
+import net.objecthunter.exp4j.operator.Operator;
+import net.objecthunter.exp4j.shuntingyard.ShuntingYard;
+import net.objecthunter.exp4j.tokenizer.FunctionToken;
+import net.objecthunter.exp4j.tokenizer.NumberToken;
+import net.objecthunter.exp4j.tokenizer.OperatorToken;
+import net.objecthunter.exp4j.tokenizer.Token;
+import net.objecthunter.exp4j.tokenizer.VariableToken;
+
+/**
+ * An equation parsed once into flat RPN arrays. Variables are bound by slot index and evaluation
+ * reuses a preallocated operand stack, so repeated evaluation does not parse or allocate.
+ * Instances are not thread safe, they are owned by the thread local cache in {@link EquationHelper}.
+ */
+public final class CompiledExpression
+{
+	// ----------------------------------------------------------------------
+	private static final byte OP_NUMBER = 0;
+	private static final byte OP_VARIABLE = 1;
+	private static final byte OP_OPERATOR = 2;
+	private static final byte OP_FUNCTION = 3;
+
+	// ----------------------------------------------------------------------
+	// The constants exp4j declares as variables on every expression, these are folded into numbers when compiling
+	private static final Map<String, Double> BuiltinConstants = new HashMap<String, Double>();
+	static
+	{
+		BuiltinConstants.put( "pi", Math.PI );
+		BuiltinConstants.put( "\u03c0", Math.PI );
+		BuiltinConstants.put( "e", Math.E );
+		BuiltinConstants.put( "\u03c6", 1.61803398874d );
+	}
+
+	// ----------------------------------------------------------------------
+	public final String equation;
+	public final String[] variableNames;
+	private final int[] blockSlots;
+	private final double[] variableValues;
+
+	// ----------------------------------------------------------------------
+	private final byte[] opTypes;
+	private final double[] constants;
+	private final int[] slots;
+	private final int[] arity;
+	private final Operator[] operators;
+	private final Function[] functions;
+
+	// ----------------------------------------------------------------------
+	private final double[] stack;
+	private final double[][] argBuffers;
+
+	// ----------------------------------------------------------------------
+	private CompiledExpression( String equation, String[] variableNames, Token[] tokens )
+	{
+		this.equation = equation;
+		this.variableNames = variableNames;
+		this.variableValues = new double[variableNames.length];
+
+		blockSlots = new int[variableNames.length];
+		for ( int i = 0; i < variableNames.length; i++ )
+		{
+			blockSlots[i] = VariableBlock.getSlot( variableNames[i] );
+		}
+
+		int count = tokens.length;
+		opTypes = new byte[count];
+		constants = new double[count];
+		slots = new int[count];
+		arity = new int[count];
+		operators = new Operator[count];
+		functions = new Function[count];
+
+		int depth = 0;
+		int maxDepth = 0;
+		int maxArity = 0;
+
+		for ( int i = 0; i < count; i++ )
+		{
+			Token token = tokens[i];
+
+			switch ( token.getType() )
+			{
+				case Token.TOKEN_NUMBER:
+					opTypes[i] = OP_NUMBER;
+					constants[i] = ( (NumberToken) token ).getValue();
+					depth++;
+					break;
+
+				case Token.TOKEN_VARIABLE:
+				{
+					String name = ( (VariableToken) token ).getName();
+					Double constant = BuiltinConstants.get( name );
+					if ( constant != null )
+					{
+						opTypes[i] = OP_NUMBER;
+						constants[i] = constant;
+					}
+					else
+					{
+						opTypes[i] = OP_VARIABLE;
+						slots[i] = getVariableSlot( name );
+					}
+					depth++;
+					break;
+				}
+
+				case Token.TOKEN_OPERATOR:
+					opTypes[i] = OP_OPERATOR;
+					operators[i] = ( (OperatorToken) token ).getOperator();
+					arity[i] = operators[i].getNumOperands();
+					depth -= arity[i];
+					if ( depth < 0 ) { throw new IllegalArgumentException( "Invalid number of operands available in '" + equation + "'" ); }
+					depth++;
+					break;
+
+				case Token.TOKEN_FUNCTION:
+					opTypes[i] = OP_FUNCTION;
+					functions[i] = ( (FunctionToken) token ).getFunction();
+					arity[i] = functions[i].getNumArguments();
+					depth -= arity[i];
+					if ( depth < 0 ) { throw new IllegalArgumentException( "Invalid number of arguments available in '" + equation + "'" ); }
+					depth++;
+					break;
+
+				default:
+					throw new IllegalArgumentException( "Unexpected token in '" + equation + "'" );
+			}
+
+			maxDepth = Math.max( maxDepth, depth );
+			maxArity = Math.max( maxArity, arity[i] );
+		}
+
+		if ( depth != 1 ) { throw new IllegalArgumentException( "Invalid number of items on the output queue in '" + equation + "'" ); }
+
+		stack = new double[maxDepth];
+		argBuffers = new double[maxArity + 1][];
+		for ( int i = 0; i <= maxArity; i++ )
+		{
+			argBuffers[i] = new double[i];
+		}
+	}
+
+	// ----------------------------------------------------------------------
+	public int getVariableSlot( String name )
+	{
+		for ( int i = 0; i < variableNames.length; i++ )
+		{
+			if ( variableNames[i].equals( name ) )
+			{
+				return i;
+			}
+		}
+
+		return -1;
+	}
+
+	// ----------------------------------------------------------------------
+	public void setVariable( int slot, double value )
+	{
+		variableValues[slot] = value;
+	}
+
+	// ----------------------------------------------------------------------
+	public void setVariables( HashMap<String, Integer> variableMap )
+	{
+		for ( int i = 0; i < variableNames.length; i++ )
+		{
+			Integer val = variableMap.get( variableNames[i] );
+			variableValues[i] = val != null ? val : 0;
+		}
+	}
+
+	// ----------------------------------------------------------------------
+	public void setVariables( VariableBlock variables )
+	{
+		for ( int i = 0; i < blockSlots.length; i++ )
+		{
+			variableValues[i] = variables.get( blockSlots[i] );
+		}
+	}
+
+	// ----------------------------------------------------------------------
+	public void clearVariables()
+	{
+		for ( int i = 0; i < variableValues.length; i++ )
+		{
+			variableValues[i] = 0;
+		}
+	}
+
+	// ----------------------------------------------------------------------
+	public double evaluate()
+	{
+		int sp = 0;
+
+		for ( int i = 0; i < opTypes.length; i++ )
+		{
+			switch ( opTypes[i] )
+			{
+				case OP_NUMBER:
+					stack[sp++] = constants[i];
+					break;
+
+				case OP_VARIABLE:
+					stack[sp++] = variableValues[slots[i]];
+					break;
+
+				case OP_OPERATOR:
+				{
+					double[] args = argBuffers[arity[i]];
+					sp -= args.length;
+					System.arraycopy( stack, sp, args, 0, args.length );
+					stack[sp++] = operators[i].apply( args );
+					break;
+				}
+
+				case OP_FUNCTION:
+				{
+					double[] args = argBuffers[arity[i]];
+					sp -= args.length;
+					System.arraycopy( stack, sp, args, 0, args.length );
+					stack[sp++] = functions[i].apply( args );
+					break;
+				}
+			}
+		}
+
+		return stack[0];
+	}
+
+	// ----------------------------------------------------------------------
+	public static CompiledExpression compile( String eqn, Map<String, Function> userFunctions, Map<String, Operator> userOperators )
+	{
+		Set<String> variables = findVariableNames( eqn );
+
+		// the tokenizer has to know the constant names, but they are not variables the caller can set
+		Set<String> tokenNames = new HashSet<String>( variables );
+		tokenNames.addAll( BuiltinConstants.keySet() );
+		Token[] tokens = ShuntingYard.convertToRPN( eqn, userFunctions, userOperators, tokenNames );
+
+		return new CompiledExpression( eqn, variables.toArray( new String[variables.size()] ), tokens );
+	}
+
+	// ----------------------------------------------------------------------
+	// Mirrors the exp4j tokenizer: a name starts with a letter or '_', a name followed by '(' is a function call and any
+	// other name that is not a built in constant is a variable.
+	private static Set<String> findVariableNames( String eqn )
+	{
+		Set<String> variables = new HashSet<String>();
+
+		int i = 0;
+		int length = eqn.length();
+		while ( i < length )
+		{
+			char c = eqn.charAt( i );
+
+			if ( Character.isLetter( c ) || c == '_' )
+			{
+				int start = i;
+				while ( i < length && ( Character.isLetter( eqn.charAt( i ) ) || Character.isDigit( eqn.charAt( i ) ) || eqn.charAt( i ) == '_' ) )
+				{
+					i++;
+				}
+				String name = eqn.substring( start, i );
+
+				int next = i;
+				while ( next < length && Character.isWhitespace( eqn.charAt( next ) ) )
+				{
+					next++;
+				}
+
+				if ( ( next == length || eqn.charAt( next ) != '(' ) && !BuiltinConstants.containsKey( name ) )
+				{
+					variables.add( name );
+				}
+			}
+			else if ( Character.isDigit( c ) || c == '.' )
+			{
+				char last = c;
+				i++;
+				while ( i < length )
+				{
+					char n = eqn.charAt( i );
+					boolean lastE = last == 'e' || last == 'E';
+					if ( Character.isDigit( n ) || n == '.' || n == 'e' || n == 'E' || ( lastE && ( n == '-' || n == '+' ) ) )
+					{
+						last = n;
+						i++;
+					}
+					else
+					{
+						break;
+					}
+				}
+			}
+			else
+			{
+				i++;
+			}
+		}
+
+		return variables;
+	}
+}
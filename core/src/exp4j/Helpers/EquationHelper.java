@@ -3,17 +3,32 @@ package exp4j.Helpers;
 import java.util.HashMap;
 import java.util.Random;
 
+import net.objecthunter.exp4j.function.Function;
+import net.objecthunter.exp4j.operator.Operator;
+
 import com.badlogic.gdx.math.MathUtils;
 import exp4j.Functions.ChanceFunction;
 import net.objecthunter.exp4j.Expression;
 import net.objecthunter.exp4j.ExpressionBuilder;
 import Roguelike.Global;
+import Roguelike.Util.VariableBlock;
 import exp4j.Functions.MathUtilFunctions;
 import exp4j.Functions.RandomFunction;
 import exp4j.Operators.BooleanOperators;
 
 public class EquationHelper
 {
+	private static final int MAX_CACHED_EQUATIONS = 4096;
+
+	private static final ThreadLocal<EquationCache> equationCache = new ThreadLocal<EquationCache>()
+	{
+		@Override
+		protected EquationCache initialValue()
+		{
+			return new EquationCache();
+		}
+	};
+
 	public static Expression tryBuild( ExpressionBuilder expB )
 	{
 		Expression exp = null;
@@ -82,22 +97,91 @@ public class EquationHelper
 		}
 		else
 		{
-			ExpressionBuilder expB = createEquationBuilder( eqn, ran );
-			setVariableNames( expB, variableMap, "" );
-			Expression exp = tryBuild( expB );
+			CompiledExpression exp = compile( eqn );
+			exp.setVariables( variableMap );
+
+			return evaluate( exp, ran );
+		}
+	}
+
+	public static int evaluate( String eqn, VariableBlock variables )
+	{
+		return evaluate( eqn, variables, MathUtils.random );
+	}
+
+	public static int evaluate( String eqn, VariableBlock variables, Random ran )
+	{
+		if ( Global.isNumber( eqn ) )
+		{
+			return Integer.parseInt( eqn );
+		}
+		else
+		{
+			CompiledExpression exp = compile( eqn );
+			exp.setVariables( variables );
+
+			return evaluate( exp, ran );
+		}
+	}
+
+	public static CompiledExpression compile( String eqn )
+	{
+		return equationCache.get().get( eqn );
+	}
+
+	public static int evaluate( CompiledExpression exp, Random ran )
+	{
+		double rawVal = evaluateRaw( exp, ran );
+		int val = Math.round( (float)rawVal );
+
+		return val;
+	}
+
+	public static double evaluateRaw( CompiledExpression exp, Random ran )
+	{
+		equationCache.get().setRandom( ran );
+		return exp.evaluate();
+	}
+
+	private static final class EquationCache
+	{
+		private final HashMap<String, CompiledExpression> expressions = new HashMap<String, CompiledExpression>();
+		private final HashMap<String, Function> functions = new HashMap<String, Function>();
+		private final HashMap<String, Operator> operators = new HashMap<String, Operator>();
+
+		private final RandomFunction randomFunction = new RandomFunction();
+		private final ChanceFunction chanceFunction = new ChanceFunction();
+
+		public EquationCache()
+		{
+			BooleanOperators.applyOperators( operators );
+			functions.put( randomFunction.getName(), randomFunction );
+			functions.put( chanceFunction.getName(), chanceFunction );
+			MathUtilFunctions.applyFunctions( functions );
+		}
+
+		public CompiledExpression get( String eqn )
+		{
+			CompiledExpression exp = expressions.get( eqn );
 
 			if ( exp == null )
 			{
-				return 0;
-			}
-			else
-			{
-				setVariableValues( exp, variableMap, "" );
-				double rawVal = exp.evaluate();
-				int val = Math.round( (float)rawVal );
+				if ( expressions.size() >= MAX_CACHED_EQUATIONS )
+				{
+					expressions.clear();
+				}
 
-				return val;
+				exp = CompiledExpression.compile( eqn, functions, operators );
+				expressions.put( eqn, exp );
 			}
+
+			return exp;
+		}
+
+		public void setRandom( Random ran )
+		{
+			randomFunction.setRandom( ran );
+			chanceFunction.setRandom( ran );
 		}
 	}
 }
@@ -1,5 +1,7 @@
 package exp4j.Operators;
 
+import java.util.Map;
+
 import net.objecthunter.exp4j.ExpressionBuilder;
 import net.objecthunter.exp4j.operator.Operator;
 
@@ -149,4 +151,19 @@ public class BooleanOperators
 		expB.operator(and);
 		expB.operator(or);
 	}
+
+	public static void applyOperators(Map<String, Operator> operators)
+	{
+		operators.put(lessThan.getSymbol(), lessThan);
+		operators.put(lessThanOrEqual.getSymbol(), lessThanOrEqual);
+		
+		operators.put(greaterThan.getSymbol(), greaterThan);
+		operators.put(greaterThanOrEqual.getSymbol(), greaterThanOrEqual);
+		
+		operators.put(equal.getSymbol(), equal);
+		operators.put(notEqual.getSymbol(), notEqual);
+		
+		operators.put(and.getSymbol(), and);
+		operators.put(or.getSymbol(), or);
+	}
 }
@@ -0,0 +1,151 @@
+package kryo;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.ObjectIntMap;
+import com.badlogic.gdx.utils.ObjectMap;
+import com.badlogic.gdx.utils.XmlReader.Element;
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.Serializer;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+
+/**
+ * Writes an xml {@link Element} tree field by field instead of as xml text, so loading does not have to parse it again.
+ * Tag names, attribute keys and values and text are interned in a dictionary that lives for one object graph, so the
+ * repeated names in entity and ability definitions are only written once per save.
+ */
+public class XmlElementSerializer extends Serializer<Element>
+{
+	// ----------------------------------------------------------------------
+	private static final Object WRITE_DICTIONARY = new Object();
+	private static final Object READ_DICTIONARY = new Object();
+
+	// string ids, anything above these is an index into the dictionary
+	private static final int NULL_STRING = 0;
+	private static final int NEW_STRING = 1;
+	private static final int FIRST_INDEX = 2;
+
+	// ----------------------------------------------------------------------
+	@Override
+	@SuppressWarnings( "unchecked" )
+	public void write( Kryo kryo, Output output, Element element )
+	{
+		ObjectIntMap<String> dictionary = (ObjectIntMap<String>) kryo.getGraphContext().get( WRITE_DICTIONARY );
+		if ( dictionary == null )
+		{
+			dictionary = new ObjectIntMap<String>();
+			kryo.getGraphContext().put( WRITE_DICTIONARY, dictionary );
+		}
+
+		writeElement( output, element, dictionary );
+	}
+
+	// ----------------------------------------------------------------------
+	@Override
+	@SuppressWarnings( "unchecked" )
+	public Element read( Kryo kryo, Input input, Class<Element> type )
+	{
+		Array<String> dictionary = (Array<String>) kryo.getGraphContext().get( READ_DICTIONARY );
+		if ( dictionary == null )
+		{
+			dictionary = new Array<String>();
+			kryo.getGraphContext().put( READ_DICTIONARY, dictionary );
+		}
+
+		return readElement( input, null, dictionary );
+	}
+
+	// ----------------------------------------------------------------------
+	private void writeElement( Output output, Element element, ObjectIntMap<String> dictionary )
+	{
+		writeString( output, element.getName(), dictionary );
+
+		ObjectMap<String, String> attributes = element.getAttributes();
+		if ( attributes == null )
+		{
+			output.writeInt( 0, true );
+		}
+		else
+		{
+			output.writeInt( attributes.size, true );
+			for ( ObjectMap.Entry<String, String> entry : attributes.entries() )
+			{
+				writeString( output, entry.key, dictionary );
+				writeString( output, entry.value, dictionary );
+			}
+		}
+
+		writeString( output, element.getText(), dictionary );
+
+		int childCount = element.getChildCount();
+		output.writeInt( childCount, true );
+		for ( int i = 0; i < childCount; i++ )
+		{
+			writeElement( output, element.getChild( i ), dictionary );
+		}
+	}
+
+	// ----------------------------------------------------------------------
+	private Element readElement( Input input, Element parent, Array<String> dictionary )
+	{
+		Element element = new Element( readString( input, dictionary ), parent );
+
+		int attributeCount = input.readInt( true );
+		for ( int i = 0; i < attributeCount; i++ )
+		{
+			String key = readString( input, dictionary );
+			String value = readString( input, dictionary );
+			element.setAttribute( key, value );
+		}
+
+		element.setText( readString( input, dictionary ) );
+
+		int childCount = input.readInt( true );
+		for ( int i = 0; i < childCount; i++ )
+		{
+			element.addChild( readElement( input, element, dictionary ) );
+		}
+
+		return element;
+	}
+
+	// ----------------------------------------------------------------------
+	private void writeString( Output output, String value, ObjectIntMap<String> dictionary )
+	{
+		if ( value == null )
+		{
+			output.writeInt( NULL_STRING, true );
+			return;
+		}
+
+		int index = dictionary.get( value, -1 );
+		if ( index != -1 )
+		{
+			output.writeInt( FIRST_INDEX + index, true );
+		}
+		else
+		{
+			dictionary.put( value, dictionary.size );
+
+			output.writeInt( NEW_STRING, true );
+			output.writeString( value );
+		}
+	}
+
+	// ----------------------------------------------------------------------
+	private String readString( Input input, Array<String> dictionary )
+	{
+		int id = input.readInt( true );
+
+		if ( id == NULL_STRING ) { return null; }
+
+		if ( id == NEW_STRING )
+		{
+			String value = input.readString();
+			dictionary.add( value );
+			return value;
+		}
+
+		return dictionary.get( id - FIRST_INDEX );
+	}
+}